@@ -0,0 +1,50 @@
+package fr.lostaria.wakeapi.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.lostaria.wakeapi.payload.APIResponse;
+import fr.lostaria.wakeapi.payload.APIResponseCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class APIResponseBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final APIResponse response = new APIResponse(true, "INSTANCE_STATUS", "ACTIVE");
+    private final APIResponseCache cache = new APIResponseCache();
+
+    @Benchmark
+    public byte[] serializeBytes() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public String serializeString() throws JsonProcessingException {
+        return mapper.writeValueAsString(response);
+    }
+
+    @Benchmark
+    public byte[] serializeNew() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(new APIResponse(true, "INSTANCE_STATUS", "ACTIVE"));
+    }
+
+    @Benchmark
+    public byte[] cached() {
+        return cache.get(true, "INSTANCE_STATUS", "ACTIVE").body();
+    }
+}
@@ -0,0 +1,37 @@
+package fr.lostaria.wakeapi.benchmarks;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Copie de la signature telle qu'elle était dans OvhApi avant OvhSigner, gardée comme référence de comparaison.
+ */
+final class LegacyOvhSigner {
+
+    private LegacyOvhSigner() {
+    }
+
+    static String signature(String appSecret, String consumerKey, String method, String url, String body, long timestamp)
+            throws NoSuchAlgorithmException, UnsupportedEncodingException {
+        String toSign = new StringBuilder(appSecret)
+                .append("+").append(consumerKey)
+                .append("+").append(method)
+                .append("+").append(url)
+                .append("+").append(body == null ? "" : body)
+                .append("+").append(timestamp)
+                .toString();
+        return "$1$" + HashSHA1(toSign);
+    }
+
+    static String HashSHA1(String text) throws NoSuchAlgorithmException, UnsupportedEncodingException {
+        MessageDigest md = MessageDigest.getInstance("SHA-1");
+        md.update(text.getBytes("iso-8859-1"), 0, text.length());
+        byte[] sha1hash = md.digest();
+        StringBuilder sb = new StringBuilder();
+        for (byte b : sha1hash) {
+            sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+        }
+        return sb.toString();
+    }
+}
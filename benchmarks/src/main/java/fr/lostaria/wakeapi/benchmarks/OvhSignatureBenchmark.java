@@ -0,0 +1,64 @@
+package fr.lostaria.wakeapi.benchmarks;
+
+import fr.lostaria.wakeapi.core.OvhSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ancienne signature (OvhApi.HashSHA1) contre OvhSigner. Lancer avec {@code -prof gc}
+ * pour comparer aussi les allocations par opération.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OvhSignatureBenchmark {
+
+    private final String appSecret = "7kbG7Bk7S9Nt7ZSV";
+    private final String consumerKey = "MtSwSrPpNjqfVSmJhLbPyr2i45lSwPU1";
+    private final String url = "https://eu.api.ovh.com/1.0/cloud/project/0123456789abcdef0123456789abcdef/instance/"
+            + "8e0f1a4b-6f0c-4b7a-9d3e-2f1c5a7b9d0e/unshelve";
+    private final long timestamp = 1_760_000_000L;
+    private final OvhSigner signer = new OvhSigner();
+
+    // Corps vide (GET/unshelve) et corps JSON de ~1 Ko
+    @Param({"0", "1024"})
+    public int bodySize;
+
+    private String body;
+    private String toSign;
+
+    @Setup
+    public void setup() {
+        body = bodySize == 0 ? "" : "{\"name\":\"" + "x".repeat(bodySize - 11) + "\"}";
+        toSign = appSecret + "+" + consumerKey + "+POST+" + url + "+" + body + "+" + timestamp;
+    }
+
+    @Benchmark
+    public String legacyHashSha1() throws Exception {
+        return LegacyOvhSigner.HashSHA1(toSign);
+    }
+
+    @Benchmark
+    public String legacySignature() throws Exception {
+        return LegacyOvhSigner.signature(appSecret, consumerKey, "POST", url, body, timestamp);
+    }
+
+    @Benchmark
+    public String signer() {
+        return signer.sign(appSecret, consumerKey, "POST", url, body, timestamp);
+    }
+}
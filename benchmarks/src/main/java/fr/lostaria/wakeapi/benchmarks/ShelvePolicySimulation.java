@@ -0,0 +1,130 @@
+package fr.lostaria.wakeapi.benchmarks;
+
+import fr.lostaria.wakeapi.core.shelve.AdaptiveShelvePolicy;
+import fr.lostaria.wakeapi.core.shelve.FixedShelvePolicy;
+import fr.lostaria.wakeapi.core.shelve.ShelvePolicy;
+import fr.lostaria.wakeapi.core.shelve.ShelveSchedule;
+import fr.lostaria.wakeapi.core.shelve.ShelveSimulator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Rejoue des traces de joueurs (CSV {@code horodatage,joueurs}, un fichier par démarrage d'instance) contre la politique
+ * fixe historique et la politique adaptative, puis affiche les heures d'instance économisées.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar fr.lostaria.wakeapi.benchmarks.ShelvePolicySimulation \
+ *     [--idleGraceMinutes=10] [--bootGraceMinutes=20] [--emptySamples=3] [--minIntervalSeconds=60] \
+ *     [--perPlayerIntervalSeconds=60] [--maxIntervalSeconds=600] [--zone=Europe/Paris] \
+ *     [--schedule=18:00-01:00:30:5 ...] traces/
+ * </pre>
+ * {@code --schedule=HH:mm-HH:mm:graceMinutes:samples} se répète, comme {@code instance.watch.schedules[n]}.
+ */
+public final class ShelvePolicySimulation {
+
+    private static final Pattern SCHEDULE = Pattern.compile("(\\d{1,2}:\\d{2})-(\\d{1,2}:\\d{2}):(\\d+):(\\d+)");
+
+    private ShelvePolicySimulation() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        AdaptiveShelvePolicy.Settings d = AdaptiveShelvePolicy.Settings.defaults();
+        Duration idleGrace = d.idleGrace();
+        Duration bootGrace = d.bootGrace();
+        int emptySamples = d.emptySamples();
+        Duration minInterval = d.minInterval();
+        Duration perPlayerInterval = d.perPlayerInterval();
+        Duration maxInterval = d.maxInterval();
+        ZoneId zone = d.zone();
+        List<ShelveSchedule> schedules = new ArrayList<>();
+        List<Path> inputs = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--idleGraceMinutes=")) idleGrace = Duration.ofMinutes(Long.parseLong(value(arg)));
+            else if (arg.startsWith("--bootGraceMinutes=")) bootGrace = Duration.ofMinutes(Long.parseLong(value(arg)));
+            else if (arg.startsWith("--emptySamples=")) emptySamples = Integer.parseInt(value(arg));
+            else if (arg.startsWith("--minIntervalSeconds=")) minInterval = Duration.ofSeconds(Long.parseLong(value(arg)));
+            else if (arg.startsWith("--perPlayerIntervalSeconds=")) perPlayerInterval = Duration.ofSeconds(Long.parseLong(value(arg)));
+            else if (arg.startsWith("--maxIntervalSeconds=")) maxInterval = Duration.ofSeconds(Long.parseLong(value(arg)));
+            else if (arg.startsWith("--zone=")) zone = ZoneId.of(value(arg));
+            else if (arg.startsWith("--schedule=")) schedules.add(schedule(value(arg)));
+            else inputs.add(Path.of(arg));
+        }
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: ShelvePolicySimulation [options] <trace.csv|dossier>...");
+            System.exit(2);
+        }
+
+        ShelvePolicy fixed = FixedShelvePolicy.legacy();
+        ShelvePolicy adaptive = new AdaptiveShelvePolicy(new AdaptiveShelvePolicy.Settings(
+                idleGrace, bootGrace, emptySamples, minInterval, perPlayerInterval, maxInterval, zone, schedules));
+
+        Duration fixedTotal = Duration.ZERO;
+        Duration adaptiveTotal = Duration.ZERO;
+        int fixedPremature = 0;
+        int adaptivePremature = 0;
+
+        System.out.printf("%-32s %12s %10s %12s %10s%n", "trace", "fixe (h)", "prématuré", "adaptatif (h)", "prématuré");
+        for (ShelveSimulator.Trace trace : traces(inputs)) {
+            ShelveSimulator.Result f = ShelveSimulator.simulate(fixed, trace);
+            ShelveSimulator.Result a = ShelveSimulator.simulate(adaptive, trace);
+            fixedTotal = fixedTotal.plus(f.uptime());
+            adaptiveTotal = adaptiveTotal.plus(a.uptime());
+            if (f.premature()) fixedPremature++;
+            if (a.premature()) adaptivePremature++;
+            System.out.printf("%-32s %12.2f %10s %12.2f %10s%n", trace.name(), hours(f.uptime()), f.premature() ? "oui" : "", hours(a.uptime()), a.premature() ? "oui" : "");
+        }
+
+        System.out.printf("%nTotal : fixe = %.2f h (%d shelve(s) prématuré(s)), adaptatif = %.2f h (%d shelve(s) prématuré(s))%n",
+                hours(fixedTotal), fixedPremature, hours(adaptiveTotal), adaptivePremature);
+        System.out.printf("Heures d'instance économisées : %.2f h%n", hours(fixedTotal.minus(adaptiveTotal)));
+    }
+
+    private static List<ShelveSimulator.Trace> traces(List<Path> inputs) throws IOException {
+        List<ShelveSimulator.Trace> traces = new ArrayList<>();
+        for (Path input : inputs) {
+            List<Path> files;
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> s = Files.list(input)) {
+                    files = s.filter(p -> p.toString().endsWith(".csv")).sorted().toList();
+                }
+            } else {
+                files = List.of(input);
+            }
+            for (Path file : files) {
+                traces.add(ShelveSimulator.parseCsv(file.getFileName().toString(), Files.readAllLines(file)));
+            }
+        }
+        return traces;
+    }
+
+    private static ShelveSchedule schedule(String spec) {
+        Matcher m = SCHEDULE.matcher(spec);
+        if (!m.matches()) {
+            throw new IllegalArgumentException("--schedule attend HH:mm-HH:mm:graceMinutes:samples, reçu " + spec);
+        }
+        return new ShelveSchedule(LocalTime.parse(pad(m.group(1))), LocalTime.parse(pad(m.group(2))),
+                Duration.ofMinutes(Long.parseLong(m.group(3))), Integer.parseInt(m.group(4)));
+    }
+
+    private static String pad(String time) {
+        return time.length() == 4 ? "0" + time : time;
+    }
+
+    private static String value(String arg) {
+        return arg.substring(arg.indexOf('=') + 1);
+    }
+
+    private static double hours(Duration d) {
+        return d.toSeconds() / 3600.0;
+    }
+}
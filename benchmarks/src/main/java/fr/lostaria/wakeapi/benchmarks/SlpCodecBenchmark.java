@@ -0,0 +1,58 @@
+package fr.lostaria.wakeapi.benchmarks;
+
+import fr.lostaria.wakeapi.core.slp.SlpCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlpCodecBenchmark {
+
+    // 1, 2, 3 et 5 octets une fois encodé
+    @Param({"0", "300", "25565", "-1"})
+    public int value;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(16);
+    private final ByteBuffer encoded = ByteBuffer.allocate(16);
+
+    @Setup
+    public void setup() {
+        SlpCodec.writeVarInt(encoded, value);
+        encoded.flip();
+    }
+
+    @Benchmark
+    public ByteBuffer writeVarInt() {
+        buffer.clear();
+        SlpCodec.writeVarInt(buffer, value);
+        return buffer;
+    }
+
+    @Benchmark
+    public int readVarInt() throws IOException {
+        encoded.rewind();
+        return SlpCodec.readVarInt(encoded);
+    }
+
+    @Benchmark
+    public ByteBuffer handshake() {
+        return SlpCodec.statusRequest("play.lostaria.fr", 25565, 47);
+    }
+}
@@ -0,0 +1,52 @@
+package fr.lostaria.wakeapi.benchmarks;
+
+import fr.lostaria.wakeapi.core.MinecraftStatus;
+import fr.lostaria.wakeapi.core.slp.SlpStatusParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlpStatusParserBenchmark {
+
+    private static final String VANILLA = "{\"version\":{\"name\":\"1.21.4\",\"protocol\":769},"
+            + "\"players\":{\"max\":20,\"online\":3,\"sample\":[{\"name\":\"Steve\",\"id\":\"069a79f4-44e9-4726-a5be-fca90e38aaf5\"}]},"
+            + "\"description\":{\"text\":\"Lostaria \",\"extra\":[{\"text\":\"Dev\",\"color\":\"gold\"}]}}";
+
+    // Réponse réaliste d'un serveur moddé : favicon base64 (~8 Ko) et liste de mods, ignorés par le parseur
+    private static final String MODDED = "{\"favicon\":\"data:image/png;base64," + "iVBORw0KGgo".repeat(750) + "\","
+            + "\"modinfo\":{\"type\":\"FML\",\"modList\":[" + "{\"modid\":\"mod\",\"version\":\"1.0\"},".repeat(100) + "{}]},"
+            + "\"version\":{\"name\":\"1.20.1\",\"protocol\":763},\"players\":{\"max\":100,\"online\":42},\"description\":\"Lostaria\"}";
+
+    @Param({"vanilla", "modded"})
+    public String payload;
+
+    private byte[] json;
+
+    @Setup
+    public void setup() {
+        json = (payload.equals("vanilla") ? VANILLA : MODDED).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public MinecraftStatus parse() throws IOException {
+        return SlpStatusParser.parse(json, 0, json.length, 12);
+    }
+}
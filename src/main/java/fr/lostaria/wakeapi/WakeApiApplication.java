@@ -2,10 +2,12 @@ package fr.lostaria.wakeapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.scheduling.annotation.EnableAsync;
 
 @SpringBootApplication
 @EnableAsync
+@ConfigurationPropertiesScan
 public class WakeApiApplication {
 
 	public static void main(String[] args) {
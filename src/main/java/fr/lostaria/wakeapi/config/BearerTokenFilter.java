@@ -0,0 +1,57 @@
+package fr.lostaria.wakeapi.config;
+
+import fr.lostaria.wakeapi.core.auth.BearerTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authentifie les requêtes portant {@code Authorization: Bearer <jeton>}. Un jeton invalide ou expiré
+ * laisse simplement la requête anonyme : c'est le point d'entrée de sécurité habituel qui la refuse.
+ * L'API {@code EventSource} des navigateurs ne pouvant pas envoyer d'en-tête, les flux {@code GET /events/**}
+ * acceptent aussi le jeton en paramètre {@code access_token}.
+ */
+public class BearerTokenFilter extends OncePerRequestFilter {
+
+    private static final String PREFIX = "Bearer ";
+    private static final String QUERY_PARAM = "access_token";
+    private static final String EVENTS_PATH = "/events/";
+
+    private final BearerTokenService tokens;
+
+    public BearerTokenFilter(BearerTokenService tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = token(request);
+        if (token != null) {
+            tokens.verify(token).ifPresent(authentication -> {
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+            });
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static String token(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+            return header.substring(PREFIX.length()).trim();
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("GET".equals(request.getMethod()) && path.startsWith(EVENTS_PATH)) {
+            return request.getParameter(QUERY_PARAM);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,15 @@
+package fr.lostaria.wakeapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@ConfigurationProperties(prefix = "fleet")
+public record FleetProperties(List<Instance> instances) {
+
+    public FleetProperties {
+        instances = instances == null ? List.of() : List.copyOf(instances);
+    }
+
+    public record Instance(String id, String name, String minecraftHost, Integer minecraftPort, String sshHost) { }
+}
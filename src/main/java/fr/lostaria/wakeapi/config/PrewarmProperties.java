@@ -0,0 +1,36 @@
+package fr.lostaria.wakeapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "instance.prewarm")
+public record PrewarmProperties(
+        Boolean enabled,
+        Duration lead,
+        String zone,
+        List<Window> windows,
+        Learning learning
+) {
+
+    public PrewarmProperties {
+        enabled = enabled != null && enabled;
+        lead = lead == null ? Duration.ofMinutes(10) : lead;
+        windows = windows == null ? List.of() : List.copyOf(windows);
+        learning = learning == null ? new Learning(null, null, null, null, null) : learning;
+    }
+
+    /** {@code cron} (6 champs, fuseau {@code zone}) donne l'heure d'arrivée attendue des joueurs, pas l'heure du réveil. */
+    public record Window(String instanceId, String cron) { }
+
+    public record Learning(Boolean enabled, Integer weeks, Integer minWeeks, Duration slot, String historyFile) {
+
+        public Learning {
+            enabled = enabled == null || enabled;
+            weeks = weeks == null ? 4 : weeks;
+            minWeeks = minWeeks == null ? 2 : minWeeks;
+            slot = slot == null ? Duration.ofMinutes(15) : slot;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package fr.lostaria.wakeapi.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
@@ -11,9 +13,19 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableScheduling
 public class SchedulingConfig {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     @Bean
     @Primary
     public TaskScheduler taskScheduler() {
+        if (virtualThreads) {
+            // Un thread virtuel par exécution : un check lent ne bloque plus les autres tâches planifiées
+            SimpleAsyncTaskScheduler ts = new SimpleAsyncTaskScheduler();
+            ts.setVirtualThreads(true);
+            ts.setThreadNamePrefix("watcher-");
+            return ts;
+        }
         ThreadPoolTaskScheduler ts = new ThreadPoolTaskScheduler();
         ts.setPoolSize(2);
         ts.setThreadNamePrefix("watcher-");
@@ -1,5 +1,7 @@
 package fr.lostaria.wakeapi.config;
 
+import fr.lostaria.wakeapi.core.auth.BearerTokenService;
+import fr.lostaria.wakeapi.core.auth.CachingPasswordEncoder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,6 +16,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.Http403ForbiddenEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.time.Duration;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
@@ -29,6 +34,12 @@ public class SecurityConfig {
     @Value("${spring.security.user.roles}")
     private String adminRoles;
 
+    @Value("${auth.credentialCache.maxEntries:64}")
+    private int credentialCacheSize;
+
+    @Value("${auth.credentialCache.ttlSeconds:300}")
+    private long credentialCacheTtlSeconds;
+
     @Bean
     public UserDetailsService userDetailsService() {
         UserDetails admin = User.withUsername(adminUsername)
@@ -39,7 +50,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, BearerTokenService bearerTokens) throws Exception {
         http
                 .authorizeHttpRequests(authorizeRequests ->
                         authorizeRequests
@@ -49,6 +60,7 @@ public class SecurityConfig {
                                 .anyRequest().authenticated()
                 )
                 .httpBasic(withDefaults())
+                .addFilterBefore(new BearerTokenFilter(bearerTokens), BasicAuthenticationFilter.class)
                 .csrf(AbstractHttpConfigurer::disable)
                 .exceptionHandling(exceptionHandling ->
                         exceptionHandling.authenticationEntryPoint(new Http403ForbiddenEntryPoint())
@@ -58,6 +70,6 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new CachingPasswordEncoder(new BCryptPasswordEncoder(), credentialCacheSize, Duration.ofSeconds(credentialCacheTtlSeconds));
     }
 }
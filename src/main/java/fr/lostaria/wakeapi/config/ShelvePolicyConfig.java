@@ -0,0 +1,55 @@
+package fr.lostaria.wakeapi.config;
+
+import fr.lostaria.wakeapi.core.shelve.AdaptiveShelvePolicy;
+import fr.lostaria.wakeapi.core.shelve.FixedShelvePolicy;
+import fr.lostaria.wakeapi.core.shelve.ShelvePolicy;
+import fr.lostaria.wakeapi.core.shelve.ShelveSchedule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.ZoneId;
+import java.util.List;
+
+@Configuration
+public class ShelvePolicyConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ShelvePolicyConfig.class);
+
+    @Bean
+    public ShelvePolicy shelvePolicy(ShelvePolicyProperties properties) {
+        if (properties.policy().equalsIgnoreCase("fixed")) {
+            log.info("InstanceWatch: politique fixe (20 min puis 5 min)");
+            return FixedShelvePolicy.legacy();
+        }
+        if (!properties.policy().equalsIgnoreCase("adaptive")) {
+            throw new IllegalStateException("Unknown instance.watch.policy: " + properties.policy());
+        }
+
+        List<ShelveSchedule> schedules = properties.schedules().stream()
+                .map(s -> {
+                    if (s.from() == null || s.to() == null) throw new IllegalStateException("instance.watch.schedules[].from/to are required");
+                    return new ShelveSchedule(
+                            s.from(),
+                            s.to(),
+                            s.idleGrace() == null ? properties.idleGrace() : s.idleGrace(),
+                            s.emptySamples() == null ? properties.emptySamples() : s.emptySamples());
+                })
+                .toList();
+        ZoneId zone = properties.zone() == null || properties.zone().isBlank() ? ZoneId.systemDefault() : ZoneId.of(properties.zone());
+
+        AdaptiveShelvePolicy.Settings settings = new AdaptiveShelvePolicy.Settings(
+                properties.idleGrace(),
+                properties.bootGrace(),
+                properties.emptySamples(),
+                properties.minInterval(),
+                properties.perPlayerInterval(),
+                properties.maxInterval(),
+                zone,
+                schedules);
+        log.info("InstanceWatch: politique adaptative (grâce={}, démarrage={}, échantillons vides={}, {} fenêtre(s))",
+                settings.idleGrace(), settings.bootGrace(), settings.emptySamples(), schedules.size());
+        return new AdaptiveShelvePolicy(settings);
+    }
+}
@@ -0,0 +1,34 @@
+package fr.lostaria.wakeapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "instance.watch")
+public record ShelvePolicyProperties(
+        String policy,
+        Duration idleGrace,
+        Duration bootGrace,
+        Integer emptySamples,
+        Duration minInterval,
+        Duration perPlayerInterval,
+        Duration maxInterval,
+        String zone,
+        List<Schedule> schedules
+) {
+
+    public ShelvePolicyProperties {
+        policy = policy == null || policy.isBlank() ? "adaptive" : policy;
+        idleGrace = idleGrace == null ? Duration.ofMinutes(10) : idleGrace;
+        bootGrace = bootGrace == null ? Duration.ofMinutes(20) : bootGrace;
+        emptySamples = emptySamples == null ? 3 : emptySamples;
+        minInterval = minInterval == null ? Duration.ofMinutes(1) : minInterval;
+        perPlayerInterval = perPlayerInterval == null ? Duration.ofMinutes(1) : perPlayerInterval;
+        maxInterval = maxInterval == null ? Duration.ofMinutes(10) : maxInterval;
+        schedules = schedules == null ? List.of() : List.copyOf(schedules);
+    }
+
+    public record Schedule(LocalTime from, LocalTime to, Duration idleGrace, Integer emptySamples) { }
+}
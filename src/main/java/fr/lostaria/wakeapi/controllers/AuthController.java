@@ -0,0 +1,40 @@
+package fr.lostaria.wakeapi.controllers;
+
+import fr.lostaria.wakeapi.core.auth.BearerTokenService;
+import fr.lostaria.wakeapi.payload.APIResponse;
+import fr.lostaria.wakeapi.payload.TokenResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/auth")
+public class AuthController {
+
+    private final BearerTokenService tokens;
+
+    public AuthController(BearerTokenService tokens) {
+        this.tokens = tokens;
+    }
+
+    // Un login Basic (un seul BCrypt) contre un jeton court à vérification HMAC pour les clients qui pollent
+    @PostMapping("/token")
+    public ResponseEntity token(Authentication authentication, @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        // Un jeton ne peut pas en émettre un autre : sa durée de vie resterait sinon illimitée sans mot de passe
+        if (!authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new APIResponse(false, "BASIC_AUTH_REQUIRED", "Tokens are issued for Basic credentials only"));
+        }
+        BearerTokenService.IssuedToken issued = tokens.issue(authentication);
+        return ResponseEntity.status(HttpStatus.OK).body(new TokenResponse(
+                issued.token(),
+                "Bearer",
+                tokens.ttl().toSeconds(),
+                issued.expiresAt().toString()
+        ));
+    }
+}
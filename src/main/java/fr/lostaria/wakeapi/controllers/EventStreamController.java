@@ -0,0 +1,66 @@
+package fr.lostaria.wakeapi.controllers;
+
+import fr.lostaria.wakeapi.core.FleetInstance;
+import fr.lostaria.wakeapi.payload.APIResponse;
+import fr.lostaria.wakeapi.services.FleetRegistry;
+import fr.lostaria.wakeapi.sse.SseHub;
+import fr.lostaria.wakeapi.ws.EventCursor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/events")
+public class EventStreamController {
+
+    private final SseHub hub;
+    private final FleetRegistry fleet;
+
+    public EventStreamController(SseHub hub, FleetRegistry fleet) {
+        this.hub = hub;
+        this.fleet = fleet;
+    }
+
+    @GetMapping("/instance")
+    public ResponseEntity instance(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return open(SseHub.Stream.INSTANCE, fleet.defaultInstance(), lastEventId);
+    }
+
+    @GetMapping("/instance/{id}")
+    public ResponseEntity instance(@PathVariable String id, @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        FleetInstance instance = fleet.find(id).orElse(null);
+        if (instance == null) return notFound(id);
+        return open(SseHub.Stream.INSTANCE, instance, lastEventId);
+    }
+
+    @GetMapping("/minecraft")
+    public ResponseEntity minecraft(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return open(SseHub.Stream.MINECRAFT, fleet.defaultInstance(), lastEventId);
+    }
+
+    @GetMapping("/minecraft/{id}")
+    public ResponseEntity minecraft(@PathVariable String id, @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        FleetInstance instance = fleet.find(id).orElse(null);
+        if (instance == null) return notFound(id);
+        return open(SseHub.Stream.MINECRAFT, instance, lastEventId);
+    }
+
+    private ResponseEntity open(SseHub.Stream stream, FleetInstance instance, String lastEventId) {
+        SseEmitter emitter = hub.open(stream, instance, EventCursor.parse(lastEventId)).orElse(null);
+        if (emitter == null) {
+            // Type explicite : le client a demandé text/event-stream, qui ne sait pas porter une APIResponse
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).contentType(MediaType.APPLICATION_JSON).body(new APIResponse(false, "SSE_LIMIT_REACHED", "Trop de flux ouverts, réessayez plus tard"));
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(emitter);
+    }
+
+    private ResponseEntity notFound(String id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new APIResponse(false, "INSTANCE_NOT_FOUND", "Instance inconnue : " + id));
+    }
+}
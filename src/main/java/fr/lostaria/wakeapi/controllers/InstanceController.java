@@ -1,67 +1,114 @@
 package fr.lostaria.wakeapi.controllers;
 
+import fr.lostaria.wakeapi.core.FleetInstance;
 import fr.lostaria.wakeapi.core.InstanceStatus;
 import fr.lostaria.wakeapi.core.exception.OvhApiException;
+import fr.lostaria.wakeapi.core.lifecycle.InstanceLifecycle;
+import fr.lostaria.wakeapi.core.operation.Operation;
 import fr.lostaria.wakeapi.payload.APIResponse;
-import fr.lostaria.wakeapi.services.InstanceWatchService;
+import fr.lostaria.wakeapi.payload.APIResponseCache;
+import fr.lostaria.wakeapi.payload.InstanceSummary;
+import fr.lostaria.wakeapi.services.FleetRegistry;
+import fr.lostaria.wakeapi.services.InstanceOperationService;
 import fr.lostaria.wakeapi.services.OvhApiService;
-import fr.lostaria.wakeapi.ws.InstanceStatusBroadcaster;
+import fr.lostaria.wakeapi.services.PrewarmService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/instance")
 public class InstanceController {
 
     private OvhApiService ovhApiService;
-    private final InstanceWatchService watchService;
-    private final InstanceStatusBroadcaster broadcaster;
+    private final FleetRegistry fleet;
+    private final InstanceOperationService operationService;
+    private final APIResponseCache responses;
+    private final PrewarmService prewarmService;
 
-    public InstanceController(OvhApiService ovhApiService, InstanceWatchService watchService, InstanceStatusBroadcaster broadcaster) {
+    public InstanceController(OvhApiService ovhApiService, FleetRegistry fleet, InstanceOperationService operationService, APIResponseCache responses, PrewarmService prewarmService) {
         this.ovhApiService = ovhApiService;
-        this.watchService = watchService;
-        this.broadcaster = broadcaster;
+        this.fleet = fleet;
+        this.operationService = operationService;
+        this.responses = responses;
+        this.prewarmService = prewarmService;
+    }
+
+    @GetMapping
+    public ResponseEntity list() throws OvhApiException {
+        Map<String, InstanceStatus> statuses = ovhApiService.getInstanceStatuses();
+        List<InstanceSummary> instances = fleet.all().stream()
+                .map(i -> new InstanceSummary(i.id(), i.name(), statuses.getOrDefault(i.id(), InstanceStatus.UNKNOWN).toString()))
+                .toList();
+        return ResponseEntity.status(HttpStatus.OK).body(instances);
     }
 
     @PostMapping("/start")
-    public ResponseEntity start() throws OvhApiException {
-        InstanceStatus status = ovhApiService.getInstanceStatus();
-        if(status.isStarting() || status.isStopping()) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(new APIResponse(false, "INSTANCE_ALREADY_STARTING_OR_STOPPING", "L'instance est déjà en cours de démarrage ou d'arrêt"));
-        }
-        if(status.isRunning()) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(new APIResponse(false, "INSTANCE_ALREADY_ACTIVE", "L'instance est déjà démarrée"));
-        }
-        ovhApiService.unshelveInstance();
-        watchService.startWatchAfterOneHour();
-        broadcaster.broadcast(InstanceStatus.UNSHELVING);
-        return ResponseEntity.status(HttpStatus.OK).body(new APIResponse(true, "INSTANCE_STARTING", "Instance en cours de démarrage"));
+    public ResponseEntity start() {
+        return start(fleet.defaultInstance());
     }
 
     @PostMapping("/stop")
-    public ResponseEntity stop() throws OvhApiException, IOException {
-        InstanceStatus status = ovhApiService.getInstanceStatus();
-        if(status.isStarting() || status.isStopping()) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(new APIResponse(false, "INSTANCE_ALREADY_STARTING_OR_STOPPING", "L'instance est déjà en cours de démarrage ou d'arrêt"));
-        }
-        if(!status.isRunning()) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(new APIResponse(false, "INSTANCE_NOT_ACTIVE", "L'instance est déjà éteinte"));
-        }
-        ovhApiService.shelveInstance();
-        broadcaster.broadcast(InstanceStatus.SHELVING);
-        return ResponseEntity.status(HttpStatus.OK).body(new APIResponse(true, "INSTANCE_STOPPING", "Instance en cours d'arrêt"));
+    public ResponseEntity stop() {
+        return stop(fleet.defaultInstance());
     }
 
     @GetMapping("/status")
     public ResponseEntity status() throws OvhApiException {
-        InstanceStatus status = ovhApiService.getInstanceStatus();
-        return ResponseEntity.status(HttpStatus.OK).body(new APIResponse(true, "INSTANCE_STATUS", status.toString()));
+        return status(fleet.defaultInstance());
+    }
+
+    @PostMapping("/{id}/start")
+    public ResponseEntity start(@PathVariable String id) {
+        FleetInstance instance = fleet.find(id).orElse(null);
+        if(instance == null) return notFound(id);
+        return start(instance);
+    }
+
+    @PostMapping("/{id}/stop")
+    public ResponseEntity stop(@PathVariable String id) {
+        FleetInstance instance = fleet.find(id).orElse(null);
+        if(instance == null) return notFound(id);
+        return stop(instance);
+    }
+
+    @GetMapping("/{id}/status")
+    public ResponseEntity status(@PathVariable String id) throws OvhApiException {
+        FleetInstance instance = fleet.find(id).orElse(null);
+        if(instance == null) return notFound(id);
+        return status(instance);
+    }
+
+    private ResponseEntity start(FleetInstance instance) {
+        prewarmService.recordStart(instance);
+        return accepted(operationService.submit(instance, InstanceLifecycle.Action.START));
+    }
+
+    private ResponseEntity stop(FleetInstance instance) {
+        return accepted(operationService.submit(instance, InstanceLifecycle.Action.STOP));
+    }
+
+    private ResponseEntity status(FleetInstance instance) throws OvhApiException {
+        InstanceStatus status = ovhApiService.getInstanceStatus(instance);
+        return responses.respond(HttpStatus.OK, true, "INSTANCE_STATUS", status.toString());
+    }
+
+    private ResponseEntity accepted(Operation operation) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/operations/" + operation.id())
+                .body(new APIResponse(true, "OPERATION_ACCEPTED", operation.id()));
+    }
+
+    private ResponseEntity notFound(String id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new APIResponse(false, "INSTANCE_NOT_FOUND", "Instance inconnue : " + id));
     }
 
 }
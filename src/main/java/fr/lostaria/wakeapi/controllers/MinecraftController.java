@@ -1,10 +1,17 @@
 package fr.lostaria.wakeapi.controllers;
 
+import fr.lostaria.wakeapi.core.FleetInstance;
+import fr.lostaria.wakeapi.core.MinecraftStatus;
+import fr.lostaria.wakeapi.core.cache.Snapshot;
 import fr.lostaria.wakeapi.payload.APIResponse;
+import fr.lostaria.wakeapi.payload.APIResponseCache;
+import fr.lostaria.wakeapi.services.FleetRegistry;
 import fr.lostaria.wakeapi.services.MinecraftService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -13,22 +20,81 @@ import org.springframework.web.bind.annotation.RestController;
 public class MinecraftController {
 
     private MinecraftService minecraftService;
+    private final FleetRegistry fleet;
+    private final APIResponseCache responses;
 
-    public MinecraftController(MinecraftService minecraftService) {
+    public MinecraftController(MinecraftService minecraftService, FleetRegistry fleet, APIResponseCache responses) {
         this.minecraftService = minecraftService;
+        this.fleet = fleet;
+        this.responses = responses;
     }
 
     @GetMapping("/status")
     public ResponseEntity status() {
-        return ResponseEntity.status(HttpStatus.OK).body(new APIResponse(true, "SERVER_ONLINE", "" + minecraftService.isServerOnline()));
+        return status(fleet.defaultInstance());
+    }
+
+    @GetMapping("/status/full")
+    public ResponseEntity fullStatus() {
+        return fullStatus(fleet.defaultInstance());
     }
 
     @GetMapping("/players")
     public ResponseEntity players() {
-        if(!minecraftService.isServerOnline()) {
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new APIResponse(false, "SERVER_OFFLINE", "Le serveur Minecraft n'est pas en ligne"));
+        return players(fleet.defaultInstance());
+    }
+
+    @GetMapping("/{id}/status")
+    public ResponseEntity status(@PathVariable String id) {
+        FleetInstance instance = fleet.find(id).orElse(null);
+        if(instance == null) return notFound(id);
+        return status(instance);
+    }
+
+    @GetMapping("/{id}/status/full")
+    public ResponseEntity fullStatus(@PathVariable String id) {
+        FleetInstance instance = fleet.find(id).orElse(null);
+        if(instance == null) return notFound(id);
+        return fullStatus(instance);
+    }
+
+    @GetMapping("/{id}/players")
+    public ResponseEntity players(@PathVariable String id) {
+        FleetInstance instance = fleet.find(id).orElse(null);
+        if(instance == null) return notFound(id);
+        return players(instance);
+    }
+
+    private ResponseEntity status(FleetInstance instance) {
+        Snapshot<MinecraftStatus> snapshot = minecraftService.getStatusSnapshot(instance);
+        return responses.respond(ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.AGE, age(snapshot)),
+                true, "SERVER_ONLINE", "" + snapshot.value().online());
+    }
+
+    private ResponseEntity fullStatus(FleetInstance instance) {
+        Snapshot<MinecraftStatus> snapshot = minecraftService.getStatusSnapshot(instance);
+        return ResponseEntity.status(HttpStatus.OK)
+                .header(HttpHeaders.AGE, age(snapshot))
+                .body(snapshot.value());
+    }
+
+    private ResponseEntity players(FleetInstance instance) {
+        Snapshot<MinecraftStatus> snapshot = minecraftService.getStatusSnapshot(instance);
+        MinecraftStatus status = snapshot.value();
+        if(!status.online()) {
+            return responses.respond(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.AGE, age(snapshot)),
+                    false, "SERVER_OFFLINE", "Le serveur Minecraft n'est pas en ligne");
         }
-        return ResponseEntity.status(HttpStatus.OK).body(new APIResponse(true, "ONLINE_PLAYERS", "" + minecraftService.getOnlinePlayersCount()));
+        return responses.respond(ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.AGE, age(snapshot)),
+                true, "ONLINE_PLAYERS", "" + status.playersOnline());
+    }
+
+    private ResponseEntity notFound(String id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new APIResponse(false, "INSTANCE_NOT_FOUND", "Instance inconnue : " + id));
+    }
+
+    private String age(Snapshot<?> snapshot) {
+        return Long.toString(snapshot.ageMs() / 1000);
     }
 
 }
@@ -0,0 +1,32 @@
+package fr.lostaria.wakeapi.controllers;
+
+import fr.lostaria.wakeapi.core.operation.Operation;
+import fr.lostaria.wakeapi.payload.APIResponse;
+import fr.lostaria.wakeapi.services.InstanceOperationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/operations")
+public class OperationController {
+
+    private final InstanceOperationService operationService;
+
+    public OperationController(InstanceOperationService operationService) {
+        this.operationService = operationService;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity operation(@PathVariable String id) {
+        Operation operation = operationService.find(id).orElse(null);
+        if(operation == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new APIResponse(false, "OPERATION_NOT_FOUND", "Opération inconnue : " + id));
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(operation);
+    }
+
+}
@@ -1,6 +1,6 @@
 package fr.lostaria.wakeapi.controllers;
 
-import fr.lostaria.wakeapi.payload.APIResponse;
+import fr.lostaria.wakeapi.payload.APIResponseCache;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,9 +13,15 @@ import java.io.IOException;
 @RequestMapping("/public")
 public class PublicController {
 
+    private final APIResponseCache responses;
+
+    public PublicController(APIResponseCache responses) {
+        this.responses = responses;
+    }
+
     @GetMapping("/ping")
     public ResponseEntity ping() {
-        return ResponseEntity.status(HttpStatus.OK).body(new APIResponse(true, "PONG", "Pong"));
+        return responses.respond(HttpStatus.OK, true, "PONG", "Pong");
     }
 
 }
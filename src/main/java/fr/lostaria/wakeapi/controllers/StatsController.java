@@ -0,0 +1,73 @@
+package fr.lostaria.wakeapi.controllers;
+
+import fr.lostaria.wakeapi.core.http.OvhHttpTransport;
+import fr.lostaria.wakeapi.core.resilience.OvhResilience;
+import fr.lostaria.wakeapi.services.MinecraftService;
+import fr.lostaria.wakeapi.services.OvhApiService;
+import fr.lostaria.wakeapi.services.PrewarmService;
+import fr.lostaria.wakeapi.services.SshService;
+import fr.lostaria.wakeapi.sse.SseHub;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    private final OvhHttpTransport ovhTransport;
+    private final OvhResilience ovhResilience;
+    private final OvhApiService ovhApiService;
+    private final MinecraftService minecraftService;
+    private final SshService sshService;
+    private final SseHub sseHub;
+    private final PrewarmService prewarmService;
+
+    public StatsController(OvhHttpTransport ovhTransport, OvhResilience ovhResilience, OvhApiService ovhApiService, MinecraftService minecraftService, SshService sshService, SseHub sseHub, PrewarmService prewarmService) {
+        this.ovhTransport = ovhTransport;
+        this.ovhResilience = ovhResilience;
+        this.ovhApiService = ovhApiService;
+        this.minecraftService = minecraftService;
+        this.sshService = sshService;
+        this.sseHub = sseHub;
+        this.prewarmService = prewarmService;
+    }
+
+    @GetMapping("/ovh/transport")
+    public ResponseEntity ovhTransport() {
+        return ResponseEntity.status(HttpStatus.OK).body(ovhTransport.stats());
+    }
+
+    @GetMapping("/ovh/resilience")
+    public ResponseEntity ovhResilience() {
+        return ResponseEntity.status(HttpStatus.OK).body(ovhResilience.stats());
+    }
+
+    @GetMapping("/ovh/status-cache")
+    public ResponseEntity ovhStatusCache() {
+        return ResponseEntity.status(HttpStatus.OK).body(ovhApiService.getStatusCacheStats());
+    }
+
+    @GetMapping("/minecraft/status-cache")
+    public ResponseEntity minecraftStatusCache() {
+        return ResponseEntity.status(HttpStatus.OK).body(minecraftService.getStatusCacheStats());
+    }
+
+    @GetMapping("/ssh")
+    public ResponseEntity ssh() {
+        return ResponseEntity.status(HttpStatus.OK).body(sshService.getPoolStats());
+    }
+
+    @GetMapping("/events")
+    public ResponseEntity events() {
+        return ResponseEntity.status(HttpStatus.OK).body(sseHub.stats());
+    }
+
+    @GetMapping("/prewarm")
+    public ResponseEntity prewarm() {
+        return ResponseEntity.status(HttpStatus.OK).body(prewarmService.plan());
+    }
+
+}
@@ -0,0 +1,3 @@
+package fr.lostaria.wakeapi.core;
+
+public record FleetInstance(String id, String name, String minecraftHost, int minecraftPort, String sshHost) { }
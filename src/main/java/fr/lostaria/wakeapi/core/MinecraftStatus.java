@@ -1,3 +1,23 @@
 package fr.lostaria.wakeapi.core;
 
-public record MinecraftStatus(boolean online, int playersOnline) { }
+import java.util.List;
+
+public record MinecraftStatus(
+        boolean online,
+        int playersOnline,
+        int playersMax,
+        String versionName,
+        int protocol,
+        List<PlayerSample> sample,
+        String motd,
+        long latencyMs
+) {
+
+    public static final MinecraftStatus OFFLINE = new MinecraftStatus(false, 0);
+
+    public MinecraftStatus(boolean online, int playersOnline) {
+        this(online, playersOnline, 0, null, -1, List.of(), null, -1);
+    }
+
+    public record PlayerSample(String name, String id) { }
+}
@@ -0,0 +1,5 @@
+package fr.lostaria.wakeapi.core;
+
+/** Publié quand un ping rafraîchit le cache avec un état en ligne ou un nombre de joueurs différent. */
+public record MinecraftStatusChangedEvent(FleetInstance instance, MinecraftStatus status) {
+}
@@ -1,44 +1,73 @@
 package fr.lostaria.wakeapi.core;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.lostaria.wakeapi.core.exception.OvhApiException;
 import fr.lostaria.wakeapi.core.exception.OvhApiExceptionCause;
+import fr.lostaria.wakeapi.core.http.OvhHttpResponse;
+import fr.lostaria.wakeapi.core.http.OvhHttpStream;
+import fr.lostaria.wakeapi.core.http.OvhHttpTransport;
+import fr.lostaria.wakeapi.core.http.ResponseTooLargeException;
+import fr.lostaria.wakeapi.core.resilience.OvhResilience;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 @Component
 public class OvhApi {
 
     private static final Logger log = LoggerFactory.getLogger(OvhApi.class);
-    private static final int READ_TIMEOUT_MS = 30_000;
-    private static final int CONNECT_TIMEOUT_MS = 30_000;
     private static final int MAX_LOG_CHARS = 4_096;
+    private static final int MAX_ERROR_BODY_BYTES = 64 * 1024;
+    private static final Pattern ID_SEGMENT = Pattern.compile(".*\\d.*|.{16,}");
 
     private final String appKey;
     private final String appSecret;
     private final String consumerKey;
     private final String endpoint;
+    private final long maxBodyBytes;
+    private final OvhHttpTransport transport;
+    private final OvhSigner signer;
+    private final OvhTimeSync timeSync;
+    private final OvhResilience resilience;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     public OvhApi(
             @Value("${ovh.applicationKey}") String appKey,
             @Value("${ovh.applicationSecret}") String appSecret,
             @Value("${ovh.consumerKey}") String consumerKey,
-            @Value("${ovh.apiEndpoint}") String endpoint
+            @Value("${ovh.apiEndpoint}") String endpoint,
+            @Value("${ovh.http.maxBodyBytes:4194304}") long maxBodyBytes,
+            OvhHttpTransport transport,
+            OvhSigner signer,
+            OvhTimeSync timeSync,
+            OvhResilience resilience,
+            MeterRegistry meterRegistry
     ) {
         this.appKey = appKey;
         this.appSecret = appSecret;
         this.consumerKey = consumerKey;
         this.endpoint = endpoint;
+        this.maxBodyBytes = maxBodyBytes;
+        this.transport = transport;
+        this.signer = signer;
+        this.timeSync = timeSync;
+        this.resilience = resilience;
+        this.meterRegistry = meterRegistry;
     }
 
     private final static Map<String, String> endpoints;
@@ -54,24 +83,55 @@ public class OvhApi {
         endpoints.put("runabove-ca", "https://api.runabove.com/1.0");
     }
 
+    public static String resolveEndpoint(String endpoint) {
+        return endpoints.getOrDefault(endpoint, endpoint);
+    }
+
+    /** Lit le corps d'une réponse 200 directement depuis le flux, sans copie intermédiaire. */
+    @FunctionalInterface
+    public interface JsonReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
     public String get(String path) throws OvhApiException { return get(path, "", true); }
     public String get(String path, boolean needAuth) throws OvhApiException { return get(path, "", needAuth); }
     public String get(String path, String body, boolean needAuth) throws OvhApiException {
-        return call("GET", body, appKey, appSecret, consumerKey, endpoint, path, needAuth);
+        return call("GET", body, path, needAuth, this::readText);
+    }
+    public <T> T get(String path, Class<T> type) throws OvhApiException {
+        return call("GET", "", path, true, in -> objectMapper.readValue(in, type));
+    }
+    public <T> T get(String path, JsonReader<T> reader) throws OvhApiException {
+        return call("GET", "", path, true, in -> {
+            try (JsonParser parser = objectMapper.createParser(in)) {
+                return reader.read(parser);
+            }
+        });
     }
     public String put(String path, String body, boolean needAuth) throws OvhApiException {
-        return call("PUT", body, appKey, appSecret, consumerKey, endpoint, path, needAuth);
+        return call("PUT", body, path, needAuth, this::readText);
     }
     public String post(String path, String body, boolean needAuth) throws OvhApiException {
-        return call("POST", body, appKey, appSecret, consumerKey, endpoint, path, needAuth);
+        return call("POST", body, path, needAuth, this::readText);
     }
     public String delete(String path, String body, boolean needAuth) throws OvhApiException {
-        return call("DELETE", body, appKey, appSecret, consumerKey, endpoint, path, needAuth);
+        return call("DELETE", body, path, needAuth, this::readText);
     }
 
-    private String call(String method, String body, String appKey, String appSecret, String consumerKey, String endpoint, String path, boolean needAuth) throws OvhApiException {
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+
+    /** Résultat d'un échange : la valeur décodée, ou l'erreur de contenu (JSON invalide, corps trop gros). */
+    private static final class Decoded<T> {
+        T value;
+        IOException contentError;
+    }
+
+    private <T> T call(String method, String body, String path, boolean needAuth, BodyReader<T> reader) throws OvhApiException {
         long t0 = System.nanoTime();
-        String resolvedEndpoint = endpoints.getOrDefault(endpoint, endpoint);
+        String resolvedEndpoint = resolveEndpoint(endpoint);
         String urlStr = resolvedEndpoint + path;
 
         log.info("OVH -> {} {} (auth={})", method, urlStr, needAuth);
@@ -82,93 +142,120 @@ public class OvhApi {
                 mask(appKey), needAuth ? mask(consumerKey) : "n/a",
                 endpoint.equals(resolvedEndpoint) ? "-" : endpoint + "→" + resolvedEndpoint);
 
+        // Reste REJECTED si le bulkhead ou le disjoncteur refuse l'appel avant tout échange
+        String outcome = "REJECTED";
         try {
-            URL url = new URL(urlStr);
-            HttpURLConnection request = (HttpURLConnection) url.openConnection();
-            request.setRequestMethod(method);
-            request.setReadTimeout(READ_TIMEOUT_MS);
-            request.setConnectTimeout(CONNECT_TIMEOUT_MS);
-            request.setRequestProperty("Content-Type", "application/json; charset=utf-8");
-            request.setRequestProperty("X-Ovh-Application", appKey);
-
-            if (needAuth) {
-                long timestamp = System.currentTimeMillis() / 1000;
-
-                String toSign = new StringBuilder(appSecret)
-                        .append("+").append(consumerKey)
-                        .append("+").append(method)
-                        .append("+").append(url)
-                        .append("+").append(body == null ? "" : body)
-                        .append("+").append(timestamp)
-                        .toString();
-                String signature = "$1$" + HashSHA1(toSign);
-
-                request.setRequestProperty("X-Ovh-Consumer", consumerKey);
-                request.setRequestProperty("X-Ovh-Signature", signature);
-                request.setRequestProperty("X-Ovh-Timestamp", Long.toString(timestamp));
-                log.debug("OVH signing: ts={}, sig=$1$*** (masked)", timestamp);
+            Decoded<T> decoded = new Decoded<>();
+            // Les en-têtes sont recalculés à chaque tentative : la signature dépend de l'horodatage
+            OvhHttpResponse response = resilience.execute(method, urlStr,
+                    () -> exchange(method, urlStr, body, needAuth, reader, decoded));
+            if (needAuth && timeSync.isClockError(response.status(), response.body()) && timeSync.resync()) {
+                // Horloge désynchronisée : on rejoue une seule fois avec le nouveau décalage
+                log.warn("OVH <- {} {} {}: timestamp rejected, retrying with offset {}s", method, urlStr, response.status(), timeSync.offsetSeconds());
+                response = resilience.execute(method, urlStr,
+                        () -> exchange(method, urlStr, body, needAuth, reader, decoded));
             }
+            int responseCode = response.status();
+            outcome = Integer.toString(responseCode);
+            boolean success = (responseCode == 200); // garde ton comportement actuel
 
-            if (body != null && !body.isEmpty()) {
-                request.setDoOutput(true);
-                try (DataOutputStream out = new DataOutputStream(request.getOutputStream())) {
-                    out.write(body.getBytes(StandardCharsets.UTF_8));
-                    out.flush();
+            long dtMs = (System.nanoTime() - t0) / 1_000_000;
+            if (success) {
+                if (decoded.contentError != null) {
+                    log.warn("OVH <- {} {} {} ({} ms): unreadable body — {}", method, urlStr, responseCode, dtMs, decoded.contentError.getMessage());
+                    throw resilience.failure("Invalid response from OVH: " + decoded.contentError.getMessage(), OvhApiExceptionCause.API_ERROR);
                 }
-            }
-
-            int responseCode = request.getResponseCode();
-            boolean success = (responseCode == 200); // garde ton comportement actuel
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(
-                    success ? request.getInputStream() : request.getErrorStream(),
-                    StandardCharsets.UTF_8))) {
-
-                StringBuilder response = new StringBuilder();
-                String inputLine;
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
+                log.info("OVH <- {} {} {} ({} ms)", method, urlStr, responseCode, dtMs);
+                if (decoded.value instanceof String text) {
+                    log.debug("OVH resp body: {}", truncate(text));
                 }
+                return decoded.value;
+            } else {
+                String responseBody = response.body();
+                log.warn("OVH <- {} {} {} ({} ms) body: {}", method, urlStr, responseCode, dtMs, truncate(responseBody));
 
-                long dtMs = (System.nanoTime() - t0) / 1_000_000;
-                if (success) {
-                    log.info("OVH <- {} {} {} ({} ms)", method, urlStr, responseCode, dtMs);
-                    log.debug("OVH resp body: {}", truncate(response.toString()));
-                    return response.toString();
+                if (responseCode == 400) {
+                    throw resilience.failure(responseBody, OvhApiExceptionCause.BAD_PARAMETERS_ERROR);
+                } else if (responseCode == 403) {
+                    throw resilience.failure(responseBody, OvhApiExceptionCause.AUTH_ERROR);
+                } else if (responseCode == 404) {
+                    throw resilience.failure(responseBody, OvhApiExceptionCause.RESSOURCE_NOT_FOUND);
+                } else if (responseCode == 409) {
+                    throw resilience.failure(responseBody, OvhApiExceptionCause.RESSOURCE_CONFLICT_ERROR);
                 } else {
-                    log.warn("OVH <- {} {} {} ({} ms) body: {}", method, urlStr, responseCode, dtMs, truncate(response.toString()));
-
-                    if (responseCode == 400) {
-                        throw new OvhApiException(response.toString(), OvhApiExceptionCause.BAD_PARAMETERS_ERROR);
-                    } else if (responseCode == 403) {
-                        throw new OvhApiException(response.toString(), OvhApiExceptionCause.AUTH_ERROR);
-                    } else if (responseCode == 404) {
-                        throw new OvhApiException(response.toString(), OvhApiExceptionCause.RESSOURCE_NOT_FOUND);
-                    } else if (responseCode == 409) {
-                        throw new OvhApiException(response.toString(), OvhApiExceptionCause.RESSOURCE_CONFLICT_ERROR);
-                    } else {
-                        throw new OvhApiException(response.toString(), OvhApiExceptionCause.API_ERROR);
-                    }
+                    throw resilience.failure(responseBody, OvhApiExceptionCause.API_ERROR);
                 }
             }
 
-        } catch (NoSuchAlgorithmException e) {
-            log.error("OVH error (crypto): {}", e.getMessage());
-            throw new OvhApiException(e.getMessage(), OvhApiExceptionCause.INTERNAL_ERROR);
         } catch (IOException e) {
+            outcome = "IO_ERROR";
             log.error("OVH I/O error on {} {}: {}", method, urlStr, e.getMessage());
-            throw new OvhApiException(e.getMessage(), OvhApiExceptionCause.INTERNAL_ERROR);
+            throw resilience.failure(e.getMessage(), OvhApiExceptionCause.INTERNAL_ERROR);
+        } finally {
+            Timer.builder("ovh.api.requests")
+                    .description("Appels à l'API OVH, retries et resync d'horloge compris")
+                    .tag("method", method)
+                    .tag("uri", pathTemplate(path))
+                    .tag("status", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Les identifiants (projet, instance…) sont remplacés pour garder une cardinalité de tags bornée
+    static String pathTemplate(String path) {
+        int query = path.indexOf('?');
+        String[] segments = (query >= 0 ? path.substring(0, query) : path).split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            if (ID_SEGMENT.matcher(segments[i]).matches()) {
+                segments[i] = "{id}";
+            }
+        }
+        return String.join("/", segments);
+    }
+
+    /**
+     * Une tentative : le corps d'une réponse 200 est décodé au fil de l'eau puis la connexion est rendue ;
+     * seul le corps d'une réponse en erreur est chargé en texte (pour le log et la détection d'horloge).
+     */
+    private <T> OvhHttpResponse exchange(String method, String urlStr, String body, boolean needAuth,
+                                         BodyReader<T> reader, Decoded<T> decoded) throws IOException {
+        try (OvhHttpStream stream = transport.open(method, urlStr, headers(method, urlStr, body, needAuth), body)) {
+            if (stream.status() != 200) {
+                byte[] error = stream.body(Long.MAX_VALUE).readNBytes(MAX_ERROR_BODY_BYTES);
+                return new OvhHttpResponse(stream.status(), new String(error, StandardCharsets.UTF_8));
+            }
+            try {
+                decoded.value = reader.read(stream.body(maxBodyBytes));
+                decoded.contentError = null;
+            } catch (ResponseTooLargeException | JsonProcessingException e) {
+                // OVH a répondu : ce n'est pas une panne amont, inutile de réessayer ou d'ouvrir le disjoncteur
+                decoded.contentError = e;
+            }
+            return new OvhHttpResponse(stream.status(), null);
         }
     }
 
-    public static String HashSHA1(String text) throws NoSuchAlgorithmException, UnsupportedEncodingException {
-        MessageDigest md = MessageDigest.getInstance("SHA-1");
-        md.update(text.getBytes("iso-8859-1"), 0, text.length());
-        byte[] sha1hash = md.digest();
-        StringBuilder sb = new StringBuilder();
-        for (byte b : sha1hash) {
-            sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+    private String readText(InputStream body) throws IOException {
+        return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private Map<String, String> headers(String method, String urlStr, String body, boolean needAuth) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", "application/json; charset=utf-8");
+        headers.put("X-Ovh-Application", appKey);
+
+        if (needAuth) {
+            long timestamp = timeSync.now();
+            String signature = signer.sign(appSecret, consumerKey, method, urlStr, body, timestamp);
+
+            headers.put("X-Ovh-Consumer", consumerKey);
+            headers.put("X-Ovh-Signature", signature);
+            headers.put("X-Ovh-Timestamp", Long.toString(timestamp));
+            log.debug("OVH signing: ts={}, sig=$1$*** (masked)", timestamp);
         }
-        return sb.toString();
+        return headers;
     }
 
     // --- utils logs ---
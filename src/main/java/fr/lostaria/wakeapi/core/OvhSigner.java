@@ -0,0 +1,150 @@
+package fr.lostaria.wakeapi.core;
+
+import org.springframework.stereotype.Component;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Signature OVH : {@code "$1$" + sha1_hex(AS+CK+METHOD+URL+BODY+TSTAMP)}.
+ * Les champs sont encodés en UTF-8 directement dans le digest, sans chaîne intermédiaire ;
+ * digests et tampons viennent d'un petit pool (un ThreadLocal ne servirait à rien avec des threads virtuels).
+ * Seule la signature retournée est allouée.
+ */
+@Component
+public class OvhSigner {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final String PREFIX = "$1$";
+    private static final int SHA1_BYTES = 20;
+    private static final int POOL_SIZE = 32;
+
+    private final BlockingQueue<Context> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    public String sign(String appSecret, String consumerKey, String method, String url, String body, long timestamp) {
+        Context ctx = pool.poll();
+        if (ctx == null) {
+            ctx = new Context();
+        }
+        try {
+            ctx.update(appSecret);
+            ctx.separator();
+            ctx.update(consumerKey);
+            ctx.separator();
+            ctx.update(method);
+            ctx.separator();
+            ctx.update(url);
+            ctx.separator();
+            ctx.update(body == null ? "" : body);
+            ctx.separator();
+            ctx.update(timestamp);
+            return ctx.finish();
+        } finally {
+            ctx.reset();
+            pool.offer(ctx);
+        }
+    }
+
+    private static final class Context {
+
+        private final MessageDigest digest;
+        private final byte[] scratch = new byte[512];
+        private final byte[] hash = new byte[SHA1_BYTES];
+        private final char[] out = new char[PREFIX.length() + SHA1_BYTES * 2];
+        private int pos;
+
+        Context() {
+            try {
+                digest = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                // SHA-1 fait partie des algorithmes obligatoires de toute JVM
+                throw new IllegalStateException(e);
+            }
+            PREFIX.getChars(0, PREFIX.length(), out, 0);
+        }
+
+        void separator() {
+            ensure(1);
+            scratch[pos++] = '+';
+        }
+
+        // Même résultat que s.getBytes(UTF_8), surrogates isolés remplacés par '?'
+        void update(String s) {
+            int n = s.length();
+            for (int i = 0; i < n; i++) {
+                ensure(4);
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    scratch[pos++] = (byte) c;
+                } else if (c < 0x800) {
+                    scratch[pos++] = (byte) (0xC0 | (c >> 6));
+                    scratch[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    scratch[pos++] = (byte) (0xF0 | (cp >> 18));
+                    scratch[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    scratch[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    scratch[pos++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    scratch[pos++] = '?';
+                } else {
+                    scratch[pos++] = (byte) (0xE0 | (c >> 12));
+                    scratch[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    scratch[pos++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        void update(long value) {
+            ensure(20);
+            if (value < 0) {
+                scratch[pos++] = '-';
+                value = -value;
+            }
+            int start = pos;
+            do {
+                scratch[pos++] = (byte) ('0' + (value % 10));
+                value /= 10;
+            } while (value != 0);
+            for (int i = start, j = pos - 1; i < j; i++, j--) {
+                byte t = scratch[i];
+                scratch[i] = scratch[j];
+                scratch[j] = t;
+            }
+        }
+
+        String finish() {
+            flush();
+            try {
+                digest.digest(hash, 0, SHA1_BYTES);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            int o = PREFIX.length();
+            for (byte b : hash) {
+                out[o++] = HEX[(b >> 4) & 0x0F];
+                out[o++] = HEX[b & 0x0F];
+            }
+            return new String(out);
+        }
+
+        void reset() {
+            pos = 0;
+            digest.reset();
+        }
+
+        private void ensure(int bytes) {
+            if (pos + bytes > scratch.length) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            digest.update(scratch, 0, pos);
+            pos = 0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package fr.lostaria.wakeapi.core;
+
+import fr.lostaria.wakeapi.core.cache.CoalescingCache;
+import fr.lostaria.wakeapi.core.http.OvhHttpResponse;
+import fr.lostaria.wakeapi.core.http.OvhHttpTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Décalage entre notre horloge et celle d'OVH ({@code GET /auth/time}), pour signer avec l'heure serveur.
+ * Le décalage est rafraîchi périodiquement ; si OVH ne répond pas on garde le dernier connu.
+ */
+@Component
+public class OvhTimeSync {
+
+    private static final Logger log = LoggerFactory.getLogger(OvhTimeSync.class);
+    private static final long RETRY_AFTER_FAILURE_NANOS = Duration.ofSeconds(30).toNanos();
+
+    private final OvhHttpTransport transport;
+    private final String timeUrl;
+    private final CoalescingCache<Long, IOException> offsetCache;
+
+    private volatile long offsetSeconds;
+    private volatile long failedAtNanos;
+    private volatile boolean failing;
+
+    public OvhTimeSync(
+            OvhHttpTransport transport,
+            @Value("${ovh.apiEndpoint}") String endpoint,
+            @Value("${ovh.timeSync.refreshMinutes:30}") long refreshMinutes
+    ) {
+        this.transport = transport;
+        this.timeUrl = OvhApi.resolveEndpoint(endpoint) + "/auth/time";
+        this.offsetCache = new CoalescingCache<>(Duration.ofMinutes(refreshMinutes), this::fetchOffset);
+    }
+
+    /** Heure OVH estimée, en secondes epoch. */
+    public long now() {
+        return System.currentTimeMillis() / 1000 + offset();
+    }
+
+    public long offsetSeconds() {
+        return offsetSeconds;
+    }
+
+    /**
+     * Force une resynchronisation. Retourne true si le décalage a changé,
+     * c'est-à-dire si rejouer une requête signée a une chance de passer.
+     */
+    public boolean resync() {
+        long before = offsetSeconds;
+        failing = false;
+        offsetCache.invalidate();
+        return offset() != before;
+    }
+
+    public boolean isClockError(int status, String body) {
+        if ((status != 400 && status != 403) || body == null) return false;
+        String b = body.toLowerCase(Locale.ROOT);
+        return b.contains("timestamp") || b.contains("out of time") || b.contains("query_time") || b.contains("invalid signature");
+    }
+
+    private long offset() {
+        if (failing && System.nanoTime() - failedAtNanos < RETRY_AFTER_FAILURE_NANOS) {
+            return offsetSeconds;
+        }
+        try {
+            long offset = offsetCache.get();
+            failing = false;
+            return offset;
+        } catch (IOException e) {
+            failedAtNanos = System.nanoTime();
+            failing = true;
+            log.warn("OVH time sync failed ({}), keeping offset {}s", e.getMessage(), offsetSeconds);
+            return offsetSeconds;
+        }
+    }
+
+    private long fetchOffset() throws IOException {
+        long sentAt = System.currentTimeMillis();
+        OvhHttpResponse response = transport.execute("GET", timeUrl, Map.of(), null);
+        long receivedAt = System.currentTimeMillis();
+        if (response.status() != 200) {
+            throw new IOException("GET /auth/time returned " + response.status());
+        }
+        long serverTime;
+        try {
+            serverTime = Long.parseLong(response.body().trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid /auth/time body: " + response.body());
+        }
+        // Milieu de l'aller-retour comme estimation de l'instant où OVH a lu son horloge
+        long offset = serverTime - (sentAt + receivedAt) / 2000;
+        if (offset != offsetSeconds) {
+            log.info("OVH time sync: offset {}s -> {}s", offsetSeconds, offset);
+        }
+        offsetSeconds = offset;
+        return offset;
+    }
+}
@@ -0,0 +1,42 @@
+package fr.lostaria.wakeapi.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fabriques de threads nommés, en threads plateforme (daemon) ou virtuels selon
+ * {@code spring.threads.virtual.enabled}.
+ */
+public final class ThreadFactories {
+
+    private ThreadFactories() {
+    }
+
+    public static ThreadFactory named(String prefix, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(prefix, 1).factory();
+        }
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * En mode virtuel un thread par tâche, sinon un pool borné à {@code platformThreads}
+     * (0 = pool extensible).
+     */
+    public static ExecutorService executor(String prefix, boolean virtual, int platformThreads) {
+        ThreadFactory factory = named(prefix, virtual);
+        if (virtual) {
+            return Executors.newThreadPerTaskExecutor(factory);
+        }
+        return platformThreads > 0
+                ? Executors.newFixedThreadPool(platformThreads, factory)
+                : Executors.newCachedThreadPool(factory);
+    }
+}
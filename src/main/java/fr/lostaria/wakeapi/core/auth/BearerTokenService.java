@@ -0,0 +1,118 @@
+package fr.lostaria.wakeapi.core.auth;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Jetons porteurs courts signés en HMAC-SHA256 : {@code base64url(exp:roles:username).base64url(hmac)}.
+ * La vérification ne coûte qu'un HMAC, contre un BCrypt complet pour chaque requête Basic.
+ * Sans {@code auth.token.secret}, une clé aléatoire est tirée au démarrage (les jetons ne survivent pas au redémarrage).
+ */
+@Component
+public class BearerTokenService {
+
+    private static final String HMAC = "HmacSHA256";
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public BearerTokenService(
+            @Value("${auth.token.secret:}") String secret,
+            @Value("${auth.token.ttlSeconds:900}") long ttlSeconds
+    ) {
+        this(secret, Duration.ofSeconds(ttlSeconds), Clock.systemUTC());
+    }
+
+    BearerTokenService(String secret, Duration ttl, Clock clock) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, HMAC);
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public record IssuedToken(String token, Instant expiresAt) { }
+
+    public IssuedToken issue(Authentication authentication) {
+        Instant expiresAt = clock.instant().plus(ttl);
+        String roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        String payload = B64.encodeToString((expiresAt.getEpochSecond() + ":" + roles + ":" + authentication.getName())
+                .getBytes(StandardCharsets.UTF_8));
+        return new IssuedToken(payload + "." + B64.encodeToString(sign(payload)), expiresAt);
+    }
+
+    public Optional<Authentication> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) return Optional.empty();
+        String payload = token.substring(0, dot);
+
+        byte[] signature;
+        String claims;
+        try {
+            signature = B64_DECODER.decode(token.substring(dot + 1));
+            claims = new String(B64_DECODER.decode(payload), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (!MessageDigest.isEqual(signature, sign(payload))) return Optional.empty();
+
+        String[] parts = claims.split(":", 3);
+        if (parts.length != 3) return Optional.empty();
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(parts[0]);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        if (clock.instant().getEpochSecond() >= expiresAt) return Optional.empty();
+
+        List<GrantedAuthority> authorities = parts[1].isEmpty()
+                ? List.of()
+                : AuthorityUtils.commaSeparatedStringToAuthorityList(parts[1]);
+        return Optional.of(UsernamePasswordAuthenticationToken.authenticated(parts[2], null, authorities));
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+}
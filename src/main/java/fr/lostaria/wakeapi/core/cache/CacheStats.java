@@ -0,0 +1,3 @@
+package fr.lostaria.wakeapi.core.cache;
+
+public record CacheStats(long hits, long staleHits, long misses, long coalesced, long failures, long ageMs) { }
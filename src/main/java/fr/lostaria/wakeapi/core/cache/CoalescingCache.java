@@ -0,0 +1,166 @@
+package fr.lostaria.wakeapi.core.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache d'une seule valeur avec TTL : les appelants concurrents pendant un rafraîchissement
+ * partagent le même chargement au lieu de déclencher chacun un appel amont.
+ * Avec un chargeur asynchrone, une valeur expirée peut encore être servie pendant
+ * {@code staleWhileRevalidate} le temps qu'un rafraîchissement tourne en arrière-plan.
+ */
+public class CoalescingCache<T, E extends Exception> {
+
+    @FunctionalInterface
+    public interface Loader<T, E extends Exception> {
+        T load() throws E;
+    }
+
+    private record Entry<T>(T value, long loadedAtNanos, long generation) { }
+
+    private final Supplier<CompletableFuture<T>> loader;
+    private final long ttlNanos;
+    private final long staleNanos;
+
+    private final AtomicReference<Entry<T>> entry = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<T>> inFlight = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public CoalescingCache(Duration ttl, Loader<T, E> loader) {
+        this(ttl, Duration.ZERO, () -> {
+            try {
+                return CompletableFuture.completedFuture(loader.load());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+
+    private CoalescingCache(Duration ttl, Duration staleWhileRevalidate, Supplier<CompletableFuture<T>> loader) {
+        this.ttlNanos = ttl.toNanos();
+        this.staleNanos = staleWhileRevalidate.toNanos();
+        this.loader = loader;
+    }
+
+    public static <T> CoalescingCache<T, RuntimeException> async(Duration ttl, Duration staleWhileRevalidate, Supplier<CompletableFuture<T>> loader) {
+        return new CoalescingCache<>(ttl, staleWhileRevalidate, loader);
+    }
+
+    public T get() throws E {
+        return getSnapshot().value();
+    }
+
+    public Snapshot<T> getSnapshot() throws E {
+        Entry<T> current = entry.get();
+        if (current != null && current.generation() == generation.get()) {
+            long age = System.nanoTime() - current.loadedAtNanos();
+            if (age < ttlNanos) {
+                hits.increment();
+                return snapshot(current);
+            }
+            if (age < ttlNanos + staleNanos) {
+                staleHits.increment();
+                refresh();
+                return snapshot(current);
+            }
+        }
+        return new Snapshot<>(join(refresh()), 0);
+    }
+
+    public T getFresh() throws E {
+        Entry<T> current = entry.get();
+        if (current != null && current.generation() == generation.get()
+                && System.nanoTime() - current.loadedAtNanos() < ttlNanos) {
+            hits.increment();
+            return current.value();
+        }
+        return join(refresh());
+    }
+
+    /** Dernière valeur chargée, même expirée, sans jamais déclencher de chargement. */
+    public Optional<Snapshot<T>> peek() {
+        Entry<T> current = entry.get();
+        if (current == null || current.generation() != generation.get()) {
+            return Optional.empty();
+        }
+        return Optional.of(snapshot(current));
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        entry.set(null);
+        inFlight.set(null);
+    }
+
+    public CacheStats stats() {
+        Entry<T> current = entry.get();
+        long ageMs = current == null ? -1 : (System.nanoTime() - current.loadedAtNanos()) / 1_000_000;
+        return new CacheStats(hits.sum(), staleHits.sum(), misses.sum(), coalesced.sum(), failures.sum(), ageMs);
+    }
+
+    private Snapshot<T> snapshot(Entry<T> e) {
+        return new Snapshot<>(e.value(), (System.nanoTime() - e.loadedAtNanos()) / 1_000_000);
+    }
+
+    private CompletableFuture<T> refresh() {
+        while (true) {
+            CompletableFuture<T> running = inFlight.get();
+            if (running != null) {
+                coalesced.increment();
+                return running;
+            }
+            CompletableFuture<T> mine = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, mine)) {
+                misses.increment();
+                load(mine);
+                return mine;
+            }
+        }
+    }
+
+    private void load(CompletableFuture<T> target) {
+        long gen = generation.get();
+        CompletableFuture<T> source;
+        try {
+            source = loader.get();
+        } catch (RuntimeException e) {
+            source = CompletableFuture.failedFuture(e);
+        }
+        source.whenComplete((value, error) -> {
+            if (error == null && generation.get() == gen) {
+                entry.set(new Entry<>(value, System.nanoTime(), gen));
+            }
+            inFlight.compareAndSet(target, null);
+            if (error == null) {
+                target.complete(value);
+            } else {
+                failures.increment();
+                target.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private T join(CompletableFuture<T> future) throws E {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw (E) cause;
+        }
+    }
+}
@@ -0,0 +1,3 @@
+package fr.lostaria.wakeapi.core.cache;
+
+public record Snapshot<T>(T value, long ageMs) { }
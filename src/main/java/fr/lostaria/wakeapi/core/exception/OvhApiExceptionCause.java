@@ -7,5 +7,6 @@ public enum OvhApiExceptionCause {
     RESSOURCE_CONFLICT_ERROR,
     BAD_PARAMETERS_ERROR,
     AUTH_ERROR,
-    API_ERROR;
+    API_ERROR,
+    SERVICE_UNAVAILABLE;
 };
@@ -0,0 +1,120 @@
+package fr.lostaria.wakeapi.core.http;
+
+import fr.lostaria.wakeapi.core.ThreadFactories;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@ConditionalOnProperty(name = "ovh.http.transport", havingValue = "jdk", matchIfMissing = true)
+public class JdkHttpTransport implements OvhHttpTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(JdkHttpTransport.class);
+
+    // Réglages du pool, communs à tous les HttpClient de la JVM : ils se passent en options de lancement (-D)
+    private static final String POOL_SIZE_PROPERTY = "jdk.httpclient.connectionPoolSize";
+    private static final String KEEPALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final int poolSize;
+    private final long idleTimeoutSeconds;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder http2Responses = new LongAdder();
+    private final LongAdder http1Responses = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    public JdkHttpTransport(
+            @Value("${ovh.http.connectTimeoutMs:30000}") int connectTimeoutMs,
+            @Value("${ovh.http.requestTimeoutMs:30000}") int requestTimeoutMs,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        // Valeurs effectives, défauts du JDK 21 compris (0 = pool illimité)
+        this.poolSize = Integer.getInteger(POOL_SIZE_PROPERTY, 0);
+        this.idleTimeoutSeconds = Long.getLong(KEEPALIVE_PROPERTY, 30);
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER);
+        if (virtualThreads) {
+            builder.executor(ThreadFactories.executor("ovh-http-", true, 0));
+        }
+        this.client = builder.build();
+        log.info("OVH transport: java.net.http (HTTP/2, poolSize={}, idleTimeout={}s, virtualThreads={})", poolSize, idleTimeoutSeconds, virtualThreads);
+    }
+
+    @Override
+    public OvhHttpResponse execute(String method, String url, Map<String, String> headers, String body) throws IOException {
+        try (OvhHttpStream stream = open(method, url, headers, body)) {
+            return new OvhHttpResponse(stream.status(), stream.text(Long.MAX_VALUE));
+        }
+    }
+
+    @Override
+    public OvhHttpStream open(String method, String url, Map<String, String> headers, String body) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .method(method, body == null || body.isEmpty()
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+        headers.forEach(builder::header);
+
+        requests.increment();
+        int current = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(current, Math::max);
+        try {
+            // Le corps n'est pas bufferisé : OvhHttpStream.close() lit un reste court pour rendre la connexion au pool
+            HttpResponse<InputStream> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            if (response.version() == HttpClient.Version.HTTP_2) {
+                http2Responses.increment();
+            } else {
+                http1Responses.increment();
+            }
+            long contentLength = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+            return new OvhHttpStream(response.statusCode(), contentLength, response.body(), inFlight::decrementAndGet);
+        } catch (IOException e) {
+            failures.increment();
+            inFlight.decrementAndGet();
+            throw e;
+        } catch (InterruptedException e) {
+            failures.increment();
+            inFlight.decrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for " + method + " " + url, e);
+        }
+    }
+
+    @Override
+    public TransportStats stats() {
+        return new TransportStats(
+                "jdk",
+                poolSize,
+                idleTimeoutSeconds,
+                requests.sum(),
+                failures.sum(),
+                inFlight.get(),
+                peakInFlight.get(),
+                http2Responses.sum(),
+                http1Responses.sum()
+        );
+    }
+}
@@ -0,0 +1,3 @@
+package fr.lostaria.wakeapi.core.http;
+
+public record OvhHttpResponse(int status, String body) { }
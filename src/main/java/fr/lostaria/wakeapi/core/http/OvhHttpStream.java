@@ -0,0 +1,139 @@
+package fr.lostaria.wakeapi.core.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Réponse HTTP dont le corps n'a pas encore été lu. À la fermeture, un reste court (typiquement les octets après
+ * la fin du JSON) est lu pour que la connexion retourne au pool ; un corps trop gros ou en erreur est abandonné.
+ */
+public final class OvhHttpStream implements Closeable {
+
+    // Au-delà, finir de lire coûte plus cher qu'une nouvelle connexion
+    private static final int DRAIN_LIMIT_BYTES = 8 * 1024;
+
+    private final int status;
+    private final long contentLength;
+    private final InputStream body;
+    private final Runnable onClose;
+    private boolean closed;
+    private boolean aborted;
+
+    public OvhHttpStream(int status, long contentLength, InputStream body, Runnable onClose) {
+        this.status = status;
+        this.contentLength = contentLength;
+        this.body = body == null ? InputStream.nullInputStream() : body;
+        this.onClose = onClose;
+    }
+
+    public static OvhHttpStream buffered(OvhHttpResponse response) {
+        byte[] bytes = response.body() == null ? new byte[0] : response.body().getBytes(StandardCharsets.UTF_8);
+        return new OvhHttpStream(response.status(), bytes.length, new ByteArrayInputStream(bytes), () -> { });
+    }
+
+    public int status() {
+        return status;
+    }
+
+    /** Corps limité à {@code maxBytes} : au-delà la lecture échoue avec {@link ResponseTooLargeException}. */
+    public InputStream body(long maxBytes) throws IOException {
+        if (contentLength > maxBytes) {
+            aborted = true;
+            throw new ResponseTooLargeException(maxBytes);
+        }
+        return new LimitedInputStream(body, maxBytes);
+    }
+
+    public String text(long maxBytes) throws IOException {
+        return new String(body(maxBytes).readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (!aborted) drain();
+            body.close();
+        } finally {
+            onClose.run();
+        }
+    }
+
+    // Fermer avant la fin du corps annule l'échange et ferme la connexion au lieu de la rendre
+    private void drain() {
+        byte[] buffer = new byte[1024];
+        int left = DRAIN_LIMIT_BYTES;
+        try {
+            while (left > 0) {
+                int n = body.read(buffer, 0, Math.min(buffer.length, left));
+                if (n < 0) return;
+                left -= n;
+            }
+        } catch (IOException ignored) {
+            // La connexion sera fermée par body.close()
+        }
+    }
+
+    private final class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int b = super.read();
+                if (b >= 0) consume(1);
+                return b;
+            } catch (IOException e) {
+                aborted = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                // On lit un octet de plus que la limite pour détecter le dépassement
+                int n = super.read(b, off, (int) Math.min(len, window()));
+                if (n > 0) consume(n);
+                return n;
+            } catch (IOException e) {
+                aborted = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            try {
+                long skipped = super.skip(Math.min(n, window()));
+                consume(skipped);
+                return skipped;
+            } catch (IOException e) {
+                aborted = true;
+                throw e;
+            }
+        }
+
+        private long window() {
+            return remaining == Long.MAX_VALUE ? remaining : remaining + 1;
+        }
+
+        private void consume(long n) throws ResponseTooLargeException {
+            remaining -= n;
+            if (remaining < 0) throw new ResponseTooLargeException(limit);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package fr.lostaria.wakeapi.core.http;
+
+import java.io.IOException;
+import java.util.Map;
+
+public interface OvhHttpTransport {
+
+    OvhHttpResponse execute(String method, String url, Map<String, String> headers, String body) throws IOException;
+
+    /**
+     * Variante en flux : le corps est lu par l'appelant, qui doit fermer la réponse.
+     * Par défaut la réponse est d'abord entièrement chargée en mémoire.
+     */
+    default OvhHttpStream open(String method, String url, Map<String, String> headers, String body) throws IOException {
+        return OvhHttpStream.buffered(execute(method, url, headers, body));
+    }
+
+    TransportStats stats();
+}
@@ -0,0 +1,12 @@
+package fr.lostaria.wakeapi.core.http;
+
+import java.io.IOException;
+
+public class ResponseTooLargeException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ResponseTooLargeException(long limit) {
+        super("Response body exceeds " + limit + " bytes");
+    }
+}
@@ -0,0 +1,13 @@
+package fr.lostaria.wakeapi.core.http;
+
+public record TransportStats(
+        String transport,
+        int poolSize,
+        long idleTimeoutSeconds,
+        long requests,
+        long failures,
+        int inFlight,
+        int peakInFlight,
+        long http2Responses,
+        long http1Responses
+) { }
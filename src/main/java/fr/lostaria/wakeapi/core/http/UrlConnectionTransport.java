@@ -0,0 +1,78 @@
+package fr.lostaria.wakeapi.core.http;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@ConditionalOnProperty(name = "ovh.http.transport", havingValue = "urlconnection")
+public class UrlConnectionTransport implements OvhHttpTransport {
+
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    public UrlConnectionTransport(
+            @Value("${ovh.http.connectTimeoutMs:30000}") int connectTimeoutMs,
+            @Value("${ovh.http.requestTimeoutMs:30000}") int readTimeoutMs
+    ) {
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    @Override
+    public OvhHttpResponse execute(String method, String url, Map<String, String> headers, String body) throws IOException {
+        try (OvhHttpStream stream = open(method, url, headers, body)) {
+            return new OvhHttpResponse(stream.status(), stream.text(Long.MAX_VALUE));
+        }
+    }
+
+    @Override
+    public OvhHttpStream open(String method, String url, Map<String, String> headers, String body) throws IOException {
+        requests.increment();
+        int current = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(current, Math::max);
+        try {
+            HttpURLConnection request = (HttpURLConnection) URI.create(url).toURL().openConnection();
+            request.setRequestMethod(method);
+            request.setReadTimeout(readTimeoutMs);
+            request.setConnectTimeout(connectTimeoutMs);
+            headers.forEach(request::setRequestProperty);
+
+            if (body != null && !body.isEmpty()) {
+                request.setDoOutput(true);
+                try (OutputStream out = request.getOutputStream()) {
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            int responseCode = request.getResponseCode();
+            InputStream stream = responseCode < 400 ? request.getInputStream() : request.getErrorStream();
+            return new OvhHttpStream(responseCode, request.getContentLengthLong(), stream, inFlight::decrementAndGet);
+        } catch (IOException e) {
+            failures.increment();
+            inFlight.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public TransportStats stats() {
+        long total = requests.sum();
+        return new TransportStats("urlconnection", 0, 0, total, failures.sum(), inFlight.get(), peakInFlight.get(), 0, total);
+    }
+}
@@ -0,0 +1,87 @@
+package fr.lostaria.wakeapi.core.lifecycle;
+
+import fr.lostaria.wakeapi.core.InstanceStatus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Machine à états d'une instance. Une seule opération start/stop peut être en cours :
+ * les demandes identiques concurrentes se rattachent à l'opération en cours et reçoivent son résultat,
+ * une demande opposée est refusée avec {@link LifecycleOutcome#TRANSITION_IN_PROGRESS}.
+ */
+public class InstanceLifecycle {
+
+    public enum Action { START, STOP }
+
+    @FunctionalInterface
+    public interface Transition {
+        LifecycleOutcome run() throws Exception;
+    }
+
+    private record State(LifecyclePhase phase, Action action, CompletableFuture<LifecycleOutcome> operation) { }
+
+    private final AtomicReference<State> state = new AtomicReference<>(new State(LifecyclePhase.UNKNOWN, null, null));
+
+    public LifecyclePhase phase() {
+        return state.get().phase();
+    }
+
+    public boolean isBusy() {
+        return state.get().operation() != null;
+    }
+
+    /**
+     * Synchronise la phase avec le statut observé côté OVH. Ignoré pendant une opération :
+     * c'est elle qui fixera la phase suivante.
+     */
+    public void observe(InstanceStatus status) {
+        LifecyclePhase observed = LifecyclePhase.from(status);
+        while (true) {
+            State current = state.get();
+            if (current.operation() != null || current.phase() == observed) return;
+            if (state.compareAndSet(current, new State(observed, null, null))) return;
+        }
+    }
+
+    /**
+     * Lance {@code transition} si aucune opération n'est en cours ; l'appelant qui gagne l'exécute
+     * dans son propre thread, les autres attendent le même futur.
+     */
+    public CompletableFuture<LifecycleOutcome> request(Action action, Transition transition) {
+        LifecyclePhase requested = action == Action.START ? LifecyclePhase.WAKE_REQUESTED : LifecyclePhase.STOP_REQUESTED;
+        CompletableFuture<LifecycleOutcome> mine = new CompletableFuture<>();
+        while (true) {
+            State current = state.get();
+            if (current.operation() != null) {
+                return current.action() == action
+                        ? current.operation()
+                        : CompletableFuture.completedFuture(LifecycleOutcome.TRANSITION_IN_PROGRESS);
+            }
+            if (state.compareAndSet(current, new State(requested, action, mine))) {
+                execute(current.phase(), mine, transition);
+                return mine;
+            }
+        }
+    }
+
+    private void execute(LifecyclePhase previous, CompletableFuture<LifecycleOutcome> operation, Transition transition) {
+        LifecyclePhase next = previous;
+        LifecycleOutcome outcome = null;
+        Throwable failure = null;
+        try {
+            outcome = transition.run();
+            if (outcome.phase() != null) next = outcome.phase();
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            // L'état est libéré avant de répondre, pour qu'une nouvelle demande ne soit pas rejetée à tort
+            state.set(new State(next, null, null));
+        }
+        if (failure == null) {
+            operation.complete(outcome);
+        } else {
+            operation.completeExceptionally(failure);
+        }
+    }
+}
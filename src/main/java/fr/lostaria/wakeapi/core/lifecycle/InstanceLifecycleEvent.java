@@ -0,0 +1,6 @@
+package fr.lostaria.wakeapi.core.lifecycle;
+
+import fr.lostaria.wakeapi.core.FleetInstance;
+
+public record InstanceLifecycleEvent(FleetInstance instance, LifecyclePhase phase) {
+}
@@ -0,0 +1,20 @@
+package fr.lostaria.wakeapi.core.lifecycle;
+
+public enum LifecycleOutcome {
+    STARTING(LifecyclePhase.UNSHELVING),
+    STOPPING(LifecyclePhase.SHELVING),
+    ALREADY_ACTIVE(LifecyclePhase.ACTIVE),
+    NOT_ACTIVE(null),
+    TRANSITION_IN_PROGRESS(null);
+
+    // Phase atteinte après l'opération, null si elle ne change rien
+    private final LifecyclePhase phase;
+
+    LifecycleOutcome(LifecyclePhase phase) {
+        this.phase = phase;
+    }
+
+    public LifecyclePhase phase() {
+        return phase;
+    }
+}
@@ -0,0 +1,23 @@
+package fr.lostaria.wakeapi.core.lifecycle;
+
+import fr.lostaria.wakeapi.core.InstanceStatus;
+
+public enum LifecyclePhase {
+    SHELVED,
+    WAKE_REQUESTED,
+    UNSHELVING,
+    ACTIVE,
+    STOP_REQUESTED,
+    SHELVING,
+    UNKNOWN;
+
+    public static LifecyclePhase from(InstanceStatus status) {
+        return switch (status) {
+            case ACTIVE -> ACTIVE;
+            case SHELVED_OFFLOADED -> SHELVED;
+            case UNSHELVING -> UNSHELVING;
+            case SHELVING -> SHELVING;
+            default -> UNKNOWN;
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package fr.lostaria.wakeapi.core.operation;
+
+import fr.lostaria.wakeapi.core.lifecycle.InstanceLifecycle;
+import fr.lostaria.wakeapi.core.lifecycle.LifecycleOutcome;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record Operation(
+        String id,
+        String instanceId,
+        InstanceLifecycle.Action action,
+        OperationState state,
+        LifecycleOutcome outcome,
+        String error,
+        Instant createdAt,
+        Instant updatedAt
+) {
+
+    public static Operation pending(String instanceId, InstanceLifecycle.Action action) {
+        Instant now = Instant.now();
+        return new Operation(UUID.randomUUID().toString(), instanceId, action, OperationState.PENDING, null, null, now, now);
+    }
+
+    public Operation running() {
+        return new Operation(id, instanceId, action, OperationState.RUNNING, null, null, createdAt, Instant.now());
+    }
+
+    public Operation completed(LifecycleOutcome outcome) {
+        OperationState s = outcome == LifecycleOutcome.STARTING || outcome == LifecycleOutcome.STOPPING
+                ? OperationState.SUCCEEDED
+                : OperationState.REJECTED;
+        return new Operation(id, instanceId, action, s, outcome, null, createdAt, Instant.now());
+    }
+
+    public Operation failed(String error) {
+        return new Operation(id, instanceId, action, OperationState.FAILED, null, error, createdAt, Instant.now());
+    }
+}
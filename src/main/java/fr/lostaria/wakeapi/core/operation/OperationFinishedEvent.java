@@ -0,0 +1,5 @@
+package fr.lostaria.wakeapi.core.operation;
+
+/** Publié quand une opération atteint un état final (réussie, rejetée ou en échec). */
+public record OperationFinishedEvent(Operation operation) {
+}
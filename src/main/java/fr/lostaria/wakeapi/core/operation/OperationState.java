@@ -0,0 +1,13 @@
+package fr.lostaria.wakeapi.core.operation;
+
+public enum OperationState {
+    PENDING,
+    RUNNING,
+    SUCCEEDED,
+    REJECTED,
+    FAILED;
+
+    public boolean isDone() {
+        return this == SUCCEEDED || this == REJECTED || this == FAILED;
+    }
+}
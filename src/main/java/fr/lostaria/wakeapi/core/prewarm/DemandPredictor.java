@@ -0,0 +1,75 @@
+package fr.lostaria.wakeapi.core.prewarm;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Prévoit la prochaine demande à partir des démarrages passés : la semaine est découpée en créneaux de {@code slot},
+ * et un créneau qui a vu un démarrage pendant au moins {@code minWeeks} des {@code weeks} dernières semaines
+ * est considéré comme récurrent.
+ */
+public final class DemandPredictor {
+
+    private static final int MINUTES_PER_WEEK = 7 * 24 * 60;
+
+    private final ZoneId zone;
+    private final int weeks;
+    private final int minWeeks;
+    private final long slotMinutes;
+
+    public DemandPredictor(ZoneId zone, int weeks, int minWeeks, Duration slot) {
+        if (slot.toMinutes() < 1 || MINUTES_PER_WEEK % slot.toMinutes() != 0) {
+            throw new IllegalArgumentException("slot must divide a week in whole minutes: " + slot);
+        }
+        this.zone = zone;
+        this.weeks = weeks;
+        this.minWeeks = minWeeks;
+        this.slotMinutes = slot.toMinutes();
+    }
+
+    public Optional<Instant> next(List<Instant> starts, Instant now) {
+        Instant since = now.minus(Duration.ofDays(7L * weeks));
+        Map<Long, Set<LocalDate>> weeksBySlot = new HashMap<>();
+        for (Instant start : starts) {
+            if (start.isBefore(since) || start.isAfter(now)) continue;
+            ZonedDateTime z = start.atZone(zone);
+            weeksBySlot.computeIfAbsent(minuteOfWeek(z) / slotMinutes, k -> new HashSet<>()).add(monday(z));
+        }
+
+        // Créneau en heure locale : un changement d'heure dans la semaine ne décale pas les créneaux suivants
+        LocalDateTime weekStart = monday(now.atZone(zone)).atStartOfDay();
+        Instant best = null;
+        for (Map.Entry<Long, Set<LocalDate>> e : weeksBySlot.entrySet()) {
+            if (e.getValue().size() < minWeeks) continue;
+            LocalDateTime slotStart = weekStart.plusMinutes(e.getKey() * slotMinutes);
+            ZonedDateTime occurrence = slotStart.atZone(zone);
+            if (!occurrence.toInstant().isAfter(now)) {
+                occurrence = slotStart.plusWeeks(1).atZone(zone);
+            }
+            if (best == null || occurrence.toInstant().isBefore(best)) {
+                best = occurrence.toInstant();
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private static long minuteOfWeek(ZonedDateTime z) {
+        return (z.getDayOfWeek().getValue() - 1) * 1440L + z.getHour() * 60L + z.getMinute();
+    }
+
+    private static LocalDate monday(ZonedDateTime z) {
+        return z.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
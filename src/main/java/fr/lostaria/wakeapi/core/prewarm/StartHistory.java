@@ -0,0 +1,92 @@
+package fr.lostaria.wakeapi.core.prewarm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Horodatages des démarrages demandés par les joueurs, par instance. Avec un fichier, chaque démarrage y est ajouté
+ * en CSV ({@code instanceId,horodatage}) et l'historique est relu au lancement.
+ */
+public class StartHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(StartHistory.class);
+
+    private final Path file;
+    private final Duration retention;
+    private final Map<String, List<Instant>> starts = new ConcurrentHashMap<>();
+
+    public StartHistory(Path file, Duration retention) {
+        this.file = file;
+        this.retention = retention;
+        load();
+    }
+
+    public void record(String instanceId, Instant at) {
+        add(instanceId, at);
+        if (file == null) return;
+        try {
+            Files.writeString(file, instanceId + "," + at + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("StartHistory: impossible d'écrire {} — {}", file, e.getMessage());
+        }
+    }
+
+    public List<Instant> of(String instanceId) {
+        List<Instant> list = starts.get(instanceId);
+        if (list == null) return List.of();
+        synchronized (list) {
+            Instant cutoff = Instant.now().minus(retention);
+            list.removeIf(at -> at.isBefore(cutoff));
+            return List.copyOf(list);
+        }
+    }
+
+    private void add(String instanceId, Instant at) {
+        List<Instant> list = starts.computeIfAbsent(instanceId, k -> new ArrayList<>());
+        synchronized (list) {
+            list.add(at);
+        }
+    }
+
+    private void load() {
+        if (file == null || !Files.exists(file)) return;
+        Instant cutoff = Instant.now().minus(retention);
+        List<String> kept = new ArrayList<>();
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                String[] parts = line.split(",", 2);
+                if (parts.length != 2) continue;
+                try {
+                    Instant at = Instant.parse(parts[1].strip());
+                    if (at.isBefore(cutoff)) continue;
+                    add(parts[0].strip(), at);
+                    kept.add(line);
+                } catch (DateTimeParseException ignored) {
+                }
+            }
+            // Compacte le fichier : seuls les démarrages encore dans la fenêtre d'apprentissage sont gardés
+            if (kept.size() < lines.size()) {
+                Files.write(file, kept, StandardCharsets.UTF_8);
+            }
+            int loaded = kept.size();
+            log.info("StartHistory: {} démarrage(s) relu(s) depuis {}", loaded, file);
+        } catch (IOException e) {
+            log.warn("StartHistory: impossible de lire {} — {}", file, e.getMessage());
+        }
+    }
+}
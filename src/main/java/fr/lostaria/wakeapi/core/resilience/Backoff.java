@@ -0,0 +1,23 @@
+package fr.lostaria.wakeapi.core.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Backoff exponentiel avec « full jitter » : délai tiré entre 0 et min(max, base * 2^(n-1)).
+ */
+public class Backoff {
+
+    private final long baseMillis;
+    private final long maxMillis;
+
+    public Backoff(Duration base, Duration max) {
+        this.baseMillis = base.toMillis();
+        this.maxMillis = max.toMillis();
+    }
+
+    public long delayMillis(int attempt) {
+        long ceiling = Math.min(maxMillis, baseMillis << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
@@ -0,0 +1,149 @@
+package fr.lostaria.wakeapi.core.resilience;
+
+import fr.lostaria.wakeapi.core.exception.OvhApiException;
+import fr.lostaria.wakeapi.core.exception.OvhApiExceptionCause;
+import fr.lostaria.wakeapi.core.http.OvhHttpResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Protège les appels OVH : bulkhead sur les appels simultanés, disjoncteur qui échoue vite quand OVH est dégradé,
+ * et retry avec backoff pour les requêtes idempotentes.
+ * Les erreurs réseau et les réponses 5xx/429 comptent comme des échecs ; les autres 4xx non.
+ */
+@Component
+public class OvhResilience implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OvhResilience.class);
+
+    @FunctionalInterface
+    public interface Exchange {
+        OvhHttpResponse run() throws IOException;
+    }
+
+    private final int maxAttempts;
+    private final Backoff backoff;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    private final LongAdder retries = new LongAdder();
+    private final Map<OvhApiExceptionCause, LongAdder> errors = new EnumMap<>(OvhApiExceptionCause.class);
+
+    public OvhResilience(
+            @Value("${ovh.retry.maxAttempts:3}") int maxAttempts,
+            @Value("${ovh.retry.baseDelayMs:200}") long baseDelayMs,
+            @Value("${ovh.retry.maxDelayMs:2000}") long maxDelayMs,
+            @Value("${ovh.breaker.failureThreshold:5}") int failureThreshold,
+            @Value("${ovh.breaker.openMs:30000}") long openMs,
+            @Value("${ovh.bulkhead.maxConcurrent:8}") int maxConcurrent,
+            @Value("${ovh.bulkhead.maxWaitMs:500}") long maxWaitMs
+    ) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = new Backoff(Duration.ofMillis(baseDelayMs), Duration.ofMillis(maxDelayMs));
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofMillis(openMs));
+        this.bulkhead = new Bulkhead(maxConcurrent, Duration.ofMillis(maxWaitMs));
+        for (OvhApiExceptionCause cause : OvhApiExceptionCause.values()) {
+            errors.put(cause, new LongAdder());
+        }
+    }
+
+    /**
+     * Exécute l'échange et retourne la dernière réponse obtenue (éventuellement en erreur) ;
+     * l'interprétation du code HTTP reste à l'appelant.
+     */
+    public OvhHttpResponse execute(String method, String url, Exchange exchange) throws IOException, OvhApiException {
+        if (!bulkhead.tryAcquire()) {
+            throw failure("OVH bulkhead full, rejecting " + method + " " + url, OvhApiExceptionCause.SERVICE_UNAVAILABLE);
+        }
+        try {
+            boolean idempotent = "GET".equals(method);
+            for (int attempt = 1; ; attempt++) {
+                if (!circuitBreaker.tryAcquire()) {
+                    throw failure("OVH circuit open, failing fast on " + method + " " + url, OvhApiExceptionCause.SERVICE_UNAVAILABLE);
+                }
+                boolean last = !idempotent || attempt >= maxAttempts;
+                boolean succeeded = false;
+                try {
+                    OvhHttpResponse response = exchange.run();
+                    if (!isUpstreamFailure(response.status())) {
+                        succeeded = true;
+                        return response;
+                    }
+                    if (last) return response;
+                    log.warn("OVH {} {} -> {} (attempt {}/{}), retrying", method, url, response.status(), attempt, maxAttempts);
+                } catch (IOException e) {
+                    if (last) throw e;
+                    log.warn("OVH {} {} -> {} (attempt {}/{}), retrying", method, url, e.getMessage(), attempt, maxAttempts);
+                } finally {
+                    // Toute issue, RuntimeException comprise, est comptée : un appel de test HALF_OPEN ne reste jamais en vol
+                    if (succeeded) circuitBreaker.onSuccess();
+                    else circuitBreaker.onFailure();
+                }
+                retries.increment();
+                sleep(backoff.delayMillis(attempt));
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public OvhApiException failure(String message, OvhApiExceptionCause cause) {
+        errors.get(cause).increment();
+        return new OvhApiException(message, cause);
+    }
+
+    public ResilienceStats stats() {
+        Map<OvhApiExceptionCause, Long> counts = new EnumMap<>(OvhApiExceptionCause.class);
+        errors.forEach((cause, count) -> counts.put(cause, count.sum()));
+        return new ResilienceStats(
+                circuitBreaker.state(),
+                circuitBreaker.opens(),
+                circuitBreaker.rejected(),
+                bulkhead.inFlight(),
+                bulkhead.rejected(),
+                retries.sum(),
+                counts
+        );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        errors.forEach((cause, count) -> FunctionCounter.builder("ovh.api.errors", count, LongAdder::sum)
+                .description("OvhApiException levées, par cause")
+                .tag("cause", cause.name())
+                .register(registry));
+        FunctionCounter.builder("ovh.api.retries", retries, LongAdder::sum).register(registry);
+        FunctionCounter.builder("ovh.circuit.rejected", circuitBreaker, CircuitBreaker::rejected).register(registry);
+        FunctionCounter.builder("ovh.circuit.opens", circuitBreaker, CircuitBreaker::opens).register(registry);
+        Gauge.builder("ovh.circuit.state", circuitBreaker, cb -> cb.state().ordinal())
+                .description("0=CLOSED, 1=OPEN, 2=HALF_OPEN")
+                .register(registry);
+        Gauge.builder("ovh.bulkhead.in_flight", bulkhead, Bulkhead::inFlight).register(registry);
+        FunctionCounter.builder("ovh.bulkhead.rejected", bulkhead, Bulkhead::rejected).register(registry);
+    }
+
+    private static boolean isUpstreamFailure(int status) {
+        return status >= 500 || status == 429;
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while backing off", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package fr.lostaria.wakeapi.core.resilience;
+
+import fr.lostaria.wakeapi.core.exception.OvhApiExceptionCause;
+
+import java.util.Map;
+
+public record ResilienceStats(
+        CircuitBreaker.State circuitState,
+        long circuitOpens,
+        long shortCircuited,
+        int bulkheadInFlight,
+        long bulkheadRejected,
+        long retries,
+        Map<OvhApiExceptionCause, Long> errors
+) {
+}
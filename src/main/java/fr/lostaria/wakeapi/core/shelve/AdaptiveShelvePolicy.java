@@ -0,0 +1,120 @@
+package fr.lostaria.wakeapi.core.shelve;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Shelve seulement après {@code emptySamples} échantillons vides consécutifs ET une période de grâce écoulée depuis
+ * le dernier joueur vu (ou le démarrage) : une reconnexion rapide ne coupe plus le serveur.
+ * L'intervalle d'échantillonnage se resserre quand le nombre de joueurs baisse, et des fenêtres horaires peuvent
+ * allonger ou raccourcir la grâce (soirées, nuits).
+ * Tant que Minecraft n'a jamais répondu, l'instance démarre encore : rien n'est shelvé avant {@code bootGrace},
+ * et la grâce ne commence qu'au premier ping réussi.
+ */
+public class AdaptiveShelvePolicy implements ShelvePolicy {
+
+    public record Settings(
+            Duration idleGrace,
+            Duration bootGrace,
+            int emptySamples,
+            Duration minInterval,
+            Duration perPlayerInterval,
+            Duration maxInterval,
+            ZoneId zone,
+            List<ShelveSchedule> schedules
+    ) {
+
+        public Settings {
+            if (emptySamples < 1) throw new IllegalArgumentException("emptySamples must be >= 1");
+            if (minInterval.isZero() || minInterval.isNegative()) throw new IllegalArgumentException("minInterval must be > 0");
+            schedules = schedules == null ? List.of() : List.copyOf(schedules);
+        }
+
+        public static Settings defaults() {
+            return new Settings(Duration.ofMinutes(10), Duration.ofMinutes(20), 3, Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofMinutes(10),
+                    ZoneId.systemDefault(), List.of());
+        }
+    }
+
+    private final Settings settings;
+
+    public AdaptiveShelvePolicy(Settings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public Tracker start(Instant startedAt) {
+        return new AdaptiveTracker(startedAt);
+    }
+
+    Duration interval(int players) {
+        if (players <= 0) return settings.minInterval();
+        Duration d = settings.perPlayerInterval().multipliedBy(players);
+        if (d.compareTo(settings.minInterval()) < 0) return settings.minInterval();
+        return d.compareTo(settings.maxInterval()) > 0 ? settings.maxInterval() : d;
+    }
+
+    private ShelveSchedule scheduleAt(Instant at) {
+        LocalTime time = LocalTime.ofInstant(at, settings.zone());
+        for (ShelveSchedule s : settings.schedules()) {
+            if (s.contains(time)) return s;
+        }
+        return null;
+    }
+
+    private final class AdaptiveTracker implements Tracker {
+
+        private final Instant bootDeadline;
+        private Instant lastActiveAt;
+        private int emptyInARow;
+        private boolean seenOnline;
+
+        AdaptiveTracker(Instant startedAt) {
+            this.bootDeadline = startedAt.plus(settings.bootGrace());
+            this.lastActiveAt = startedAt;
+        }
+
+        @Override
+        public Duration firstCheck() {
+            return settings.minInterval();
+        }
+
+        @Override
+        public ShelveDecision onSample(Instant at, int players) {
+            if (players != MINECRAFT_OFFLINE && !seenOnline) {
+                // Serveur enfin joignable : les joueurs ont toute la grâce pour se connecter
+                seenOnline = true;
+                if (at.isAfter(lastActiveAt)) lastActiveAt = at;
+                emptyInARow = 0;
+            }
+            if (players > 0) {
+                lastActiveAt = at;
+                emptyInARow = 0;
+                return ShelveDecision.recheck(interval(players), "recheck_players");
+            }
+
+            emptyInARow++;
+            ShelveSchedule schedule = scheduleAt(at);
+            Duration grace = schedule != null ? schedule.idleGrace() : settings.idleGrace();
+            int needed = schedule != null ? schedule.emptySamples() : settings.emptySamples();
+
+            if (!seenOnline && at.isBefore(bootDeadline)) {
+                return ShelveDecision.recheck(settings.minInterval(), "recheck_booting");
+            }
+
+            Duration idle = Duration.between(lastActiveAt, at);
+            if (emptyInARow >= needed && idle.compareTo(grace) >= 0) {
+                return ShelveDecision.shelve(players == MINECRAFT_OFFLINE ? "shelve_minecraft_offline" : "shelve_no_players");
+            }
+            // Pas besoin d'échantillonner plus vite que ce qui reste de grâce à attendre
+            Duration remainingGrace = grace.minus(idle);
+            Duration next = remainingGrace.compareTo(settings.minInterval()) > 0 && emptyInARow >= needed
+                    ? remainingGrace
+                    : settings.minInterval();
+            return ShelveDecision.recheck(next, players == MINECRAFT_OFFLINE ? "recheck_minecraft_offline" : "recheck_empty");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package fr.lostaria.wakeapi.core.shelve;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/** Délais fixes : premier contrôle après {@code initialDelay}, shelve dès le premier échantillon vide. */
+public class FixedShelvePolicy implements ShelvePolicy {
+
+    private final Duration initialDelay;
+    private final Duration recheckWhenPlayers;
+
+    public FixedShelvePolicy(Duration initialDelay, Duration recheckWhenPlayers) {
+        this.initialDelay = initialDelay;
+        this.recheckWhenPlayers = recheckWhenPlayers;
+    }
+
+    /** Comportement historique du watcher : 20 min, puis toutes les 5 min tant qu'il y a du monde. */
+    public static FixedShelvePolicy legacy() {
+        return new FixedShelvePolicy(Duration.ofMinutes(20), Duration.ofMinutes(5));
+    }
+
+    @Override
+    public Tracker start(Instant startedAt) {
+        return new Tracker() {
+            @Override
+            public Duration firstCheck() {
+                return initialDelay;
+            }
+
+            @Override
+            public ShelveDecision onSample(Instant at, int players) {
+                if (players == MINECRAFT_OFFLINE) return ShelveDecision.shelve("shelve_minecraft_offline");
+                if (players <= 0) return ShelveDecision.shelve("shelve_no_players");
+                return ShelveDecision.recheck(recheckWhenPlayers, "recheck_players");
+            }
+        };
+    }
+}
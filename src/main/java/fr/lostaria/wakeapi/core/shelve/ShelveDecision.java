@@ -0,0 +1,15 @@
+package fr.lostaria.wakeapi.core.shelve;
+
+import java.time.Duration;
+
+/** {@code reason} sert aussi de tag {@code decision} sur la métrique instance.watch.checks. */
+public record ShelveDecision(boolean shelve, Duration nextCheck, String reason) {
+
+    public static ShelveDecision shelve(String reason) {
+        return new ShelveDecision(true, null, reason);
+    }
+
+    public static ShelveDecision recheck(Duration nextCheck, String reason) {
+        return new ShelveDecision(false, nextCheck, reason);
+    }
+}
@@ -0,0 +1,24 @@
+package fr.lostaria.wakeapi.core.shelve;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Décide quand mettre en veille (shelve) une instance démarrée, à partir d'échantillons du nombre de joueurs.
+ * Une politique est sans état : l'état propre à un démarrage vit dans le {@link Tracker} qu'elle crée.
+ */
+public interface ShelvePolicy {
+
+    /** Nombre de joueurs échantillonné quand le serveur Minecraft ne répond pas. */
+    int MINECRAFT_OFFLINE = -1;
+
+    Tracker start(Instant startedAt);
+
+    interface Tracker {
+
+        Duration firstCheck();
+
+        /** @param players joueurs connectés, ou {@link #MINECRAFT_OFFLINE} */
+        ShelveDecision onSample(Instant at, int players);
+    }
+}
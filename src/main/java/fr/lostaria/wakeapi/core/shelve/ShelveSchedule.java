@@ -0,0 +1,15 @@
+package fr.lostaria.wakeapi.core.shelve;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+/** Fenêtre horaire [from, to) qui remplace la période de grâce et le nombre d'échantillons vides ; peut passer minuit. */
+public record ShelveSchedule(LocalTime from, LocalTime to, Duration idleGrace, int emptySamples) {
+
+    public boolean contains(LocalTime time) {
+        if (from.isBefore(to)) {
+            return !time.isBefore(from) && time.isBefore(to);
+        }
+        return !time.isBefore(from) || time.isBefore(to);
+    }
+}
@@ -0,0 +1,87 @@
+package fr.lostaria.wakeapi.core.shelve;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Rejoue une trace enregistrée du nombre de joueurs (un démarrage d'instance par trace) contre une politique.
+ * Le nombre de joueurs à un instant donné est celui du dernier échantillon de la trace à cet instant.
+ */
+public final class ShelveSimulator {
+
+    public record Sample(Instant at, int players) { }
+
+    public record Trace(String name, List<Sample> samples) {
+
+        public Trace {
+            if (samples.isEmpty()) throw new IllegalArgumentException("Empty trace: " + name);
+            samples = samples.stream().sorted(Comparator.comparing(Sample::at)).toList();
+        }
+
+        Instant start() {
+            return samples.get(0).at();
+        }
+
+        Instant end() {
+            return samples.get(samples.size() - 1).at();
+        }
+
+        int playersAt(Instant at) {
+            int players = samples.get(0).players();
+            for (Sample s : samples) {
+                if (s.at().isAfter(at)) break;
+                players = s.players();
+            }
+            return players;
+        }
+
+        boolean playersAfter(Instant at) {
+            return samples.stream().anyMatch(s -> s.at().isAfter(at) && s.players() > 0);
+        }
+    }
+
+    /**
+     * @param uptime     durée allumée jusqu'au shelve, ou jusqu'à la fin de la trace
+     * @param premature  des joueurs sont revenus après le shelve : ils auraient trouvé le serveur éteint
+     */
+    public record Result(String trace, Duration uptime, boolean shelved, boolean premature, int checks) { }
+
+    private ShelveSimulator() {
+    }
+
+    public static Result simulate(ShelvePolicy policy, Trace trace) {
+        ShelvePolicy.Tracker tracker = policy.start(trace.start());
+        Instant t = trace.start().plus(tracker.firstCheck());
+        int checks = 0;
+        while (!t.isAfter(trace.end())) {
+            checks++;
+            ShelveDecision decision = tracker.onSample(t, trace.playersAt(t));
+            if (decision.shelve()) {
+                return new Result(trace.name(), Duration.between(trace.start(), t), true, trace.playersAfter(t), checks);
+            }
+            t = t.plus(decision.nextCheck());
+        }
+        return new Result(trace.name(), Duration.between(trace.start(), trace.end()), false, false, checks);
+    }
+
+    /**
+     * Lignes {@code horodatage ISO-8601,joueurs} ; {@code offline} (ou une valeur négative) pour un serveur
+     * Minecraft injoignable. Les lignes vides et commençant par {@code #} sont ignorées.
+     */
+    public static Trace parseCsv(String name, List<String> lines) {
+        List<Sample> samples = new ArrayList<>();
+        for (String line : lines) {
+            String l = line.strip();
+            if (l.isEmpty() || l.startsWith("#")) continue;
+            String[] parts = l.split(",", 2);
+            if (parts.length != 2) throw new IllegalArgumentException(name + ": invalid line '" + line + "'");
+            String players = parts[1].strip();
+            int count = players.equalsIgnoreCase("offline") ? ShelvePolicy.MINECRAFT_OFFLINE : Math.max(ShelvePolicy.MINECRAFT_OFFLINE, Integer.parseInt(players));
+            samples.add(new Sample(Instant.parse(parts[0].strip()), count));
+        }
+        return new Trace(name, samples);
+    }
+}
@@ -0,0 +1,189 @@
+package fr.lostaria.wakeapi.core.slp;
+
+import fr.lostaria.wakeapi.core.MinecraftStatus;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class SlpClient {
+
+    private static final int PROTOCOL_VERSION = 47;
+    private static final int IO_THREADS = 2;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 16;
+    private static final int MAX_PACKET_BYTES = 2 * 1024 * 1024;
+
+    private final AsynchronousChannelGroup group;
+    private final BufferPool bufferPool = new BufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+    private final ConcurrentMap<String, ByteBuffer> requests = new ConcurrentHashMap<>();
+
+    public SlpClient() throws IOException {
+        AtomicInteger threads = new AtomicInteger();
+        this.group = AsynchronousChannelGroup.withFixedThreadPool(IO_THREADS, r -> {
+            Thread t = new Thread(r, "slp-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public CompletableFuture<MinecraftStatus> ping(String host, int port, Duration timeout) {
+        CompletableFuture<MinecraftStatus> result = new CompletableFuture<>();
+        AsynchronousSocketChannel channel;
+        try {
+            channel = AsynchronousSocketChannel.open(group);
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        Exchange exchange = new Exchange(channel, request(host, port), result);
+        result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((status, error) -> exchange.closeChannel());
+        exchange.connect(new InetSocketAddress(host, port));
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        group.shutdownNow();
+    }
+
+    private ByteBuffer request(String host, int port) {
+        return requests
+                .computeIfAbsent(host + ":" + port, k -> SlpCodec.statusRequest(host, port, PROTOCOL_VERSION))
+                .duplicate();
+    }
+
+    @FunctionalInterface
+    private interface Step<V> {
+        void run(V value) throws IOException;
+    }
+
+    private final class Exchange {
+
+        private final AsynchronousSocketChannel channel;
+        private final ByteBuffer request;
+        private final CompletableFuture<MinecraftStatus> result;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private ByteBuffer buffer = bufferPool.acquire();
+        private long sentAtNanos;
+
+        Exchange(AsynchronousSocketChannel channel, ByteBuffer request, CompletableFuture<MinecraftStatus> result) {
+            this.channel = channel;
+            this.request = request;
+            this.result = result;
+        }
+
+        void connect(InetSocketAddress address) {
+            channel.connect(address, null, handler(ignored -> {
+                sentAtNanos = System.nanoTime();
+                write();
+            }));
+        }
+
+        private void write() {
+            channel.write(request, null, handler(n -> {
+                if (request.hasRemaining()) {
+                    write();
+                } else {
+                    read();
+                }
+            }));
+        }
+
+        private void read() {
+            channel.read(buffer, null, handler(n -> {
+                if (n < 0) throw new EOFException("Connection closed before status response");
+                if (!tryDecode()) read();
+            }));
+        }
+
+        private boolean tryDecode() throws IOException {
+            ByteBuffer view = buffer.duplicate().flip();
+            try {
+                int length = SlpCodec.readVarInt(view);
+                if (length <= 0 || length > MAX_PACKET_BYTES) throw new IOException("Invalid packet length: " + length);
+                int packetEnd = view.position() + length;
+                if (view.limit() < packetEnd) {
+                    ensureCapacity(packetEnd);
+                    return false;
+                }
+
+                int packetId = SlpCodec.readVarInt(view);
+                if (packetId != 0x00) throw new IOException("Invalid packetId: " + packetId);
+                int jsonLength = SlpCodec.readVarInt(view);
+                if (jsonLength < 0 || view.position() + jsonLength > packetEnd) throw new IOException("Invalid JSON length: " + jsonLength);
+
+                long latencyMs = (System.nanoTime() - sentAtNanos) / 1_000_000;
+                MinecraftStatus status = SlpStatusParser.parse(view.array(), view.arrayOffset() + view.position(), jsonLength, latencyMs);
+                result.complete(status);
+                finish();
+                return true;
+            } catch (BufferUnderflowException e) {
+                return false;
+            }
+        }
+
+        private void ensureCapacity(int needed) {
+            if (buffer.capacity() >= needed) return;
+            ByteBuffer larger = ByteBuffer.allocate(needed);
+            larger.put(buffer.flip());
+            bufferPool.release(buffer);
+            buffer = larger;
+        }
+
+        private void fail(Throwable t) {
+            result.completeExceptionally(t);
+            finish();
+        }
+
+        // Appelé uniquement depuis un callback d'I/O : aucune opération n'utilise plus le buffer
+        private void finish() {
+            if (finished.compareAndSet(false, true)) {
+                closeChannel();
+                bufferPool.release(buffer);
+            }
+        }
+
+        void closeChannel() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private <V> CompletionHandler<V, Void> handler(Step<V> next) {
+            return new CompletionHandler<>() {
+                @Override
+                public void completed(V value, Void attachment) {
+                    try {
+                        next.run(value);
+                    } catch (Exception e) {
+                        fail(e);
+                    }
+                }
+
+                @Override
+                public void failed(Throwable t, Void attachment) {
+                    fail(t);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package fr.lostaria.wakeapi.core.slp;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class SlpCodec {
+
+    public static final int STATUS_NEXT_STATE = 1;
+
+    private SlpCodec() { }
+
+    public static ByteBuffer statusRequest(String host, int port, int protocolVersion) {
+        byte[] hostBytes = host.getBytes(StandardCharsets.UTF_8);
+        int handshakeLength = 1
+                + varIntSize(protocolVersion)
+                + varIntSize(hostBytes.length) + hostBytes.length
+                + 2
+                + varIntSize(STATUS_NEXT_STATE);
+
+        ByteBuffer buf = ByteBuffer.allocate(varIntSize(handshakeLength) + handshakeLength + 2);
+        writeVarInt(buf, handshakeLength);
+        buf.put((byte) 0x00);
+        writeVarInt(buf, protocolVersion);
+        writeVarInt(buf, hostBytes.length);
+        buf.put(hostBytes);
+        buf.putShort((short) port);
+        writeVarInt(buf, STATUS_NEXT_STATE);
+
+        // Status Request : longueur 1, packetId 0x00
+        buf.put((byte) 0x01);
+        buf.put((byte) 0x00);
+        buf.flip();
+        return buf.asReadOnlyBuffer();
+    }
+
+    public static int varIntSize(int value) {
+        int size = 1;
+        while ((value & -128) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    public static void writeVarInt(ByteBuffer buf, int value) {
+        while ((value & -128) != 0) {
+            buf.put((byte) (value & 127 | 128));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    /**
+     * Lève {@link BufferUnderflowException} si le VarInt n'est pas encore entièrement reçu.
+     */
+    public static int readVarInt(ByteBuffer buf) throws IOException {
+        int numRead = 0;
+        int result = 0;
+        byte read;
+        do {
+            read = buf.get();
+            int value = (read & 0b0111_1111);
+            result |= (value << (7 * numRead));
+
+            numRead++;
+            if (numRead > 5) throw new IOException("VarInt too big");
+        } while ((read & 0b1000_0000) != 0);
+        return result;
+    }
+}
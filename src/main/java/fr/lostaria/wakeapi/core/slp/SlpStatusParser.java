@@ -0,0 +1,126 @@
+package fr.lostaria.wakeapi.core.slp;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import fr.lostaria.wakeapi.core.MinecraftStatus;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lit la réponse SLP en streaming : seuls les champs utiles sont décodés, le reste
+ * (favicon base64, données de mods…) est sauté sans être matérialisé.
+ */
+public final class SlpStatusParser {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private SlpStatusParser() { }
+
+    public static MinecraftStatus parse(byte[] bytes, int offset, int length, long latencyMs) throws IOException {
+        int playersOnline = 0;
+        int playersMax = 0;
+        String versionName = null;
+        int protocol = -1;
+        List<MinecraftStatus.PlayerSample> sample = List.of();
+        String motd = null;
+
+        try (JsonParser p = FACTORY.createParser(bytes, offset, length)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) throw new IOException("SLP status is not a JSON object");
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "players" -> {
+                        if (value != JsonToken.START_OBJECT) { p.skipChildren(); break; }
+                        while (p.nextToken() == JsonToken.FIELD_NAME) {
+                            String name = p.currentName();
+                            p.nextToken();
+                            switch (name) {
+                                case "online" -> playersOnline = p.getValueAsInt(0);
+                                case "max" -> playersMax = p.getValueAsInt(0);
+                                case "sample" -> sample = readSample(p);
+                                default -> p.skipChildren();
+                            }
+                        }
+                    }
+                    case "version" -> {
+                        if (value != JsonToken.START_OBJECT) { p.skipChildren(); break; }
+                        while (p.nextToken() == JsonToken.FIELD_NAME) {
+                            String name = p.currentName();
+                            p.nextToken();
+                            switch (name) {
+                                case "name" -> versionName = p.getValueAsString();
+                                case "protocol" -> protocol = p.getValueAsInt(-1);
+                                default -> p.skipChildren();
+                            }
+                        }
+                    }
+                    case "description" -> {
+                        StringBuilder text = new StringBuilder();
+                        readText(p, text);
+                        motd = text.toString();
+                    }
+                    default -> p.skipChildren();
+                }
+            }
+        }
+
+        return new MinecraftStatus(true, playersOnline, playersMax, versionName, protocol, sample, motd, latencyMs);
+    }
+
+    private static List<MinecraftStatus.PlayerSample> readSample(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return List.of();
+        }
+        List<MinecraftStatus.PlayerSample> players = new ArrayList<>();
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_OBJECT) {
+                // Élément inattendu : on le saute pour rester aligné sur le tableau
+                p.skipChildren();
+                continue;
+            }
+            String name = null;
+            String id = null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "name" -> name = p.getValueAsString();
+                    case "id" -> id = p.getValueAsString();
+                    default -> p.skipChildren();
+                }
+            }
+            players.add(new MinecraftStatus.PlayerSample(name, id));
+        }
+        return List.copyOf(players);
+    }
+
+    // "description" est soit une chaîne, soit un composant de chat {"text": …, "extra": [...]}
+    private static void readText(JsonParser p, StringBuilder out) throws IOException {
+        switch (p.currentToken()) {
+            case VALUE_STRING -> out.append(p.getText());
+            case START_ARRAY -> {
+                while (p.nextToken() != JsonToken.END_ARRAY) {
+                    readText(p, out);
+                }
+            }
+            case START_OBJECT -> {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    p.nextToken();
+                    if (field.equals("text") || field.equals("extra")) {
+                        readText(p, out);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            }
+            default -> p.skipChildren();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package fr.lostaria.wakeapi.core.ssh;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.schmizz.keepalive.KeepAliveProvider;
+import net.schmizz.sshj.DefaultConfig;
+import net.schmizz.sshj.SSHClient;
+import net.schmizz.sshj.connection.channel.direct.Session;
+import net.schmizz.sshj.transport.verification.PromiscuousVerifier;
+import net.schmizz.sshj.userauth.keyprovider.KeyProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Garde une connexion SSH authentifiée ouverte vers un hôte et multiplexe les sessions dessus.
+ * La connexion est rétablie si elle est tombée, et fermée après une période d'inactivité.
+ */
+public class SshConnectionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(SshConnectionManager.class);
+
+    @FunctionalInterface
+    public interface SessionCallback<T> {
+        T run(Session session) throws IOException;
+    }
+
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String privateKeyPath;
+    private final int connectTimeoutMs;
+    private final int keepAliveSeconds;
+    private final long idleTimeoutNanos;
+    private final MeterRegistry meterRegistry;
+
+    // Le moniteur ne protège que l'échange de cette référence, jamais une opération réseau
+    private SSHClient client;
+    // Une seule connexion à la fois ; les autres appelants attendent sans bloquer stats(), invalidate() ni l'éviction
+    private final ReentrantLock connectLock = new ReentrantLock();
+    private volatile KeyProvider keyProvider;
+    private volatile long lastUsedNanos = System.nanoTime();
+    private volatile long lastConnectMs = -1;
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final LongAdder connects = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder sessionsOpened = new LongAdder();
+
+    public SshConnectionManager(String host, int port, String username, String privateKeyPath,
+                                int connectTimeoutMs, int keepAliveSeconds, long idleTimeoutSeconds, MeterRegistry meterRegistry) {
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.privateKeyPath = privateKeyPath;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.keepAliveSeconds = keepAliveSeconds;
+        this.idleTimeoutNanos = Duration.ofSeconds(idleTimeoutSeconds).toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T withSession(SessionCallback<T> callback) throws IOException {
+        activeSessions.incrementAndGet();
+        try {
+            Session session = openSession();
+            try (session) {
+                return callback.run(session);
+            }
+        } finally {
+            activeSessions.decrementAndGet();
+            lastUsedNanos = System.nanoTime();
+        }
+    }
+
+    public String target() {
+        return username + "@" + host + ":" + port;
+    }
+
+    public SshPoolStats stats() {
+        boolean connected;
+        synchronized (this) {
+            connected = client != null && client.isConnected();
+        }
+        return new SshPoolStats(
+                connected,
+                connects.sum(),
+                reconnects.sum(),
+                evictions.sum(),
+                sessionsOpened.sum(),
+                activeSessions.get(),
+                lastConnectMs,
+                (System.nanoTime() - lastUsedNanos) / 1_000_000
+        );
+    }
+
+    public void close() {
+        SSHClient current;
+        synchronized (this) {
+            current = client;
+            client = null;
+        }
+        if (current != null) closeQuietly(current);
+    }
+
+    private Session openSession() throws IOException {
+        SSHClient current = client();
+        try {
+            Session session = current.startSession();
+            sessionsOpened.increment();
+            return session;
+        } catch (IOException e) {
+            // La commande n'a pas encore été envoyée : on peut réessayer sans risque sur une connexion neuve
+            log.warn("SSH: cannot open session on cached transport ({}), reconnecting", e.getMessage());
+            invalidate(current);
+            reconnects.increment();
+            Session session = client().startSession();
+            sessionsOpened.increment();
+            return session;
+        }
+    }
+
+    private SSHClient client() throws IOException {
+        SSHClient current = usable();
+        if (current != null) return current;
+        connectLock.lock();
+        try {
+            // Un autre appelant a pu se connecter pendant l'attente
+            current = usable();
+            if (current != null) return current;
+            SSHClient fresh = connect();
+            SSHClient stale;
+            synchronized (this) {
+                stale = client;
+                client = fresh;
+            }
+            if (stale != null) closeQuietly(stale);
+            return fresh;
+        } finally {
+            connectLock.unlock();
+        }
+    }
+
+    private synchronized SSHClient usable() {
+        return client != null && client.isConnected() && client.isAuthenticated() ? client : null;
+    }
+
+    private SSHClient connect() throws IOException {
+        long t0 = System.nanoTime();
+        log.info("SSH: connecting to {}", target());
+
+        DefaultConfig config = new DefaultConfig();
+        config.setKeepAliveProvider(KeepAliveProvider.KEEP_ALIVE);
+        SSHClient ssh = new SSHClient(config);
+        ssh.setConnectTimeout(connectTimeoutMs);
+        ssh.addHostKeyVerifier(new PromiscuousVerifier());
+        ssh.getConnection().getKeepAlive().setKeepAliveInterval(keepAliveSeconds);
+        String phase = "connect";
+        long phaseStart = t0;
+        try {
+            ssh.connect(host, port);
+            recordPhase(phase, "success", phaseStart);
+            phase = "auth";
+            phaseStart = System.nanoTime();
+            ssh.authPublickey(username, keyProvider(ssh));
+            recordPhase(phase, "success", phaseStart);
+        } catch (IOException e) {
+            recordPhase(phase, "failure", phaseStart);
+            closeQuietly(ssh);
+            throw e;
+        }
+
+        connects.increment();
+        lastConnectMs = (System.nanoTime() - t0) / 1_000_000;
+        log.info("SSH: authenticated as {} ({} ms)", username, lastConnectMs);
+        return ssh;
+    }
+
+    private void recordPhase(String phase, String outcome, long startNanos) {
+        Timer.builder("ssh.connection")
+                .description("Établissement des connexions SSH, par phase")
+                .tag("host", host)
+                .tag("phase", phase)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private KeyProvider keyProvider(SSHClient ssh) throws IOException {
+        KeyProvider kp = keyProvider;
+        if (kp == null) {
+            kp = ssh.loadKeys(privateKeyPath);
+            keyProvider = kp;
+        }
+        return kp;
+    }
+
+    private void invalidate(SSHClient stale) {
+        synchronized (this) {
+            if (client != stale) return;
+            client = null;
+        }
+        closeQuietly(stale);
+    }
+
+    void evictIfIdle() {
+        SSHClient idle;
+        synchronized (this) {
+            if (client == null || activeSessions.get() > 0) return;
+            if (System.nanoTime() - lastUsedNanos < idleTimeoutNanos) return;
+            idle = client;
+            client = null;
+        }
+        log.info("SSH: closing idle connection to {}", target());
+        closeQuietly(idle);
+        evictions.increment();
+    }
+
+    private void closeQuietly(SSHClient ssh) {
+        try {
+            ssh.close();
+        } catch (IOException e) {
+            log.debug("SSH: error while closing connection: {}", e.getMessage());
+        }
+    }
+}
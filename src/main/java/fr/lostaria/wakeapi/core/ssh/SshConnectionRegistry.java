@@ -0,0 +1,70 @@
+package fr.lostaria.wakeapi.core.ssh;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+
+@Component
+public class SshConnectionRegistry {
+
+    private final int port;
+    private final String username;
+    private final String privateKeyPath;
+    private final int connectTimeoutMs;
+    private final int keepAliveSeconds;
+    private final long idleTimeoutSeconds;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, SshConnectionManager> managers = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> evictionTask;
+
+    public SshConnectionRegistry(
+            TaskScheduler scheduler,
+            MeterRegistry meterRegistry,
+            @Value("${ssh.port:22}") int port,
+            @Value("${ssh.username}") String username,
+            @Value("${ssh.privateKeyPath}") String privateKeyPath,
+            @Value("${ssh.connectTimeoutMs:10000}") int connectTimeoutMs,
+            @Value("${ssh.keepAliveSeconds:30}") int keepAliveSeconds,
+            @Value("${ssh.idleTimeoutSeconds:900}") long idleTimeoutSeconds
+    ) {
+        this.port = port;
+        this.username = username;
+        this.privateKeyPath = privateKeyPath;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.keepAliveSeconds = keepAliveSeconds;
+        this.idleTimeoutSeconds = idleTimeoutSeconds;
+        this.meterRegistry = meterRegistry;
+        this.evictionTask = scheduler.scheduleWithFixedDelay(this::evictIdle, Duration.ofMinutes(1));
+    }
+
+    public SshConnectionManager forHost(String host) {
+        return managers.computeIfAbsent(host, h -> new SshConnectionManager(
+                h, port, username, privateKeyPath, connectTimeoutMs, keepAliveSeconds, idleTimeoutSeconds, meterRegistry));
+    }
+
+    public Map<String, SshPoolStats> stats() {
+        Map<String, SshPoolStats> stats = new TreeMap<>();
+        managers.forEach((host, manager) -> stats.put(host, manager.stats()));
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() {
+        evictionTask.cancel(false);
+        managers.values().forEach(SshConnectionManager::close);
+    }
+
+    private void evictIdle() {
+        managers.values().forEach(SshConnectionManager::evictIfIdle);
+    }
+}
@@ -0,0 +1,11 @@
+package fr.lostaria.wakeapi.core.ssh;
+
+@FunctionalInterface
+public interface SshOutputListener {
+
+    enum Stream { STDOUT, STDERR }
+
+    SshOutputListener NONE = (step, stream, line) -> { };
+
+    void onLine(int step, Stream stream, String line);
+}
@@ -0,0 +1,97 @@
+package fr.lostaria.wakeapi.core.ssh;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Suite d'étapes de commandes distantes. Les commandes d'une même étape sont indépendantes
+ * et s'exécutent en parallèle sur des canaux séparés ; {@link Builder#then()} ouvre l'étape suivante.
+ * En mode {@link Builder#batched()}, tout le plan est envoyé comme un seul script dans une session.
+ */
+public final class SshPlan {
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    public record Step(int index, String command, Duration timeout) { }
+
+    private final List<List<Step>> stages;
+    private final boolean batched;
+    private final SshOutputListener listener;
+
+    private SshPlan(List<List<Step>> stages, boolean batched, SshOutputListener listener) {
+        this.stages = stages;
+        this.batched = batched;
+        this.listener = listener;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static SshPlan sequential(String... commands) {
+        Builder builder = builder();
+        for (String command : commands) {
+            builder.then().step(command);
+        }
+        return builder.build();
+    }
+
+    public List<List<Step>> stages() { return stages; }
+    public boolean batched() { return batched; }
+    public SshOutputListener listener() { return listener; }
+
+    public List<Step> steps() {
+        return stages.stream().flatMap(List::stream).toList();
+    }
+
+    public static final class Builder {
+
+        private final List<List<Step>> stages = new ArrayList<>();
+        private List<Step> current = new ArrayList<>();
+        private Duration defaultTimeout = DEFAULT_TIMEOUT;
+        private boolean batched;
+        private SshOutputListener listener = SshOutputListener.NONE;
+        private int next;
+
+        private Builder() { }
+
+        public Builder step(String command) {
+            return step(command, defaultTimeout);
+        }
+
+        public Builder step(String command, Duration timeout) {
+            current.add(new Step(next++, command, timeout));
+            return this;
+        }
+
+        public Builder then() {
+            if (!current.isEmpty()) {
+                stages.add(List.copyOf(current));
+                current = new ArrayList<>();
+            }
+            return this;
+        }
+
+        public Builder defaultTimeout(Duration timeout) {
+            this.defaultTimeout = timeout;
+            return this;
+        }
+
+        public Builder batched() {
+            this.batched = true;
+            return this;
+        }
+
+        public Builder onOutput(SshOutputListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        public SshPlan build() {
+            then();
+            if (stages.isEmpty()) throw new IllegalStateException("SSH plan has no command");
+            return new SshPlan(List.copyOf(stages), batched, listener);
+        }
+    }
+}
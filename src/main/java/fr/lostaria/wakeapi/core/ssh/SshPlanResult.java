@@ -0,0 +1,15 @@
+package fr.lostaria.wakeapi.core.ssh;
+
+import java.util.List;
+import java.util.Optional;
+
+public record SshPlanResult(List<SshStepResult> steps, long durationMs) {
+
+    public boolean success() {
+        return steps.stream().allMatch(SshStepResult::success);
+    }
+
+    public Optional<SshStepResult> firstFailure() {
+        return steps.stream().filter(s -> !s.success() && !s.skipped()).findFirst();
+    }
+}
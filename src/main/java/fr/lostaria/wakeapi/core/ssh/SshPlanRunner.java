@@ -0,0 +1,187 @@
+package fr.lostaria.wakeapi.core.ssh;
+
+import jakarta.annotation.PreDestroy;
+import fr.lostaria.wakeapi.core.ThreadFactories;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.schmizz.sshj.connection.ConnectionException;
+import net.schmizz.sshj.connection.channel.direct.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Component
+public class SshPlanRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SshPlanRunner.class);
+
+    private static final int MAX_CAPTURE_CHARS = 4_096;
+    private static final long OUTPUT_DRAIN_MILLIS = 2_000;
+
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+
+    public SshPlanRunner(MeterRegistry meterRegistry, @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.meterRegistry = meterRegistry;
+        this.executor = ThreadFactories.executor("ssh-exec-", virtualThreads, 0);
+    }
+
+    public SshPlanResult run(SshConnectionManager connections, SshPlan plan) {
+        long t0 = System.nanoTime();
+        List<SshStepResult> results = new ArrayList<>();
+
+        if (plan.batched()) {
+            results.add(runBatch(connections, plan));
+        } else {
+            boolean failed = false;
+            for (List<SshPlan.Step> stage : plan.stages()) {
+                if (failed) {
+                    stage.forEach(step -> results.add(SshStepResult.skipped(step)));
+                    continue;
+                }
+                List<SshStepResult> stageResults = stage.size() == 1
+                        ? List.of(runStep(connections, stage.get(0), plan.listener()))
+                        : runParallel(connections, stage, plan.listener());
+                results.addAll(stageResults);
+                failed = stageResults.stream().anyMatch(r -> !r.success());
+            }
+        }
+
+        return new SshPlanResult(List.copyOf(results), (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private List<SshStepResult> runParallel(SshConnectionManager connections, List<SshPlan.Step> stage, SshOutputListener listener) {
+        List<CompletableFuture<SshStepResult>> futures = stage.stream()
+                .map(step -> CompletableFuture.supplyAsync(() -> runStep(connections, step, listener), executor))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private SshStepResult runBatch(SshConnectionManager connections, SshPlan plan) {
+        List<SshPlan.Step> steps = plan.steps();
+        Duration timeout = steps.stream().map(SshPlan.Step::timeout).reduce(Duration.ZERO, Duration::plus);
+        StringBuilder script = new StringBuilder("set -e");
+        for (SshPlan.Step step : steps) {
+            script.append('\n').append(step.command());
+        }
+        return runStep(connections, new SshPlan.Step(0, script.toString(), timeout), plan.listener());
+    }
+
+    private SshStepResult runStep(SshConnectionManager connections, SshPlan.Step step, SshOutputListener listener) {
+        long t0 = System.nanoTime();
+        int idx = step.index();
+        log.info("SSH[{}]: exec -> {}", idx, step.command());
+        try {
+            SshStepResult result = connections.withSession(session -> {
+                Session.Command cmd = session.exec(step.command());
+                Future<String> stdout = executor.submit(() -> pump(cmd.getInputStream(), idx, SshOutputListener.Stream.STDOUT, listener));
+                Future<String> stderr = executor.submit(() -> pump(cmd.getErrorStream(), idx, SshOutputListener.Stream.STDERR, listener));
+
+                boolean finished;
+                String lost = null;
+                try {
+                    cmd.join(step.timeout().toMillis(), TimeUnit.MILLISECONDS);
+                    finished = true;
+                } catch (ConnectionException e) {
+                    finished = false;
+                    // join échoue aussi quand le transport tombe : seul le délai dépassé est un timeout
+                    if (!(e.getCause() instanceof TimeoutException)) lost = e.getMessage();
+                }
+                Integer exit = cmd.getExitStatus();
+                if (lost == null && (!finished || exit == null)) {
+                    cmd.close();
+                }
+
+                String out = await(stdout);
+                String err = await(stderr);
+                long dtMs = (System.nanoTime() - t0) / 1_000_000;
+
+                String error = null;
+                boolean timedOut = false;
+                if (lost != null) {
+                    error = "SSH connection lost during '" + step.command() + "': " + lost;
+                } else if (!finished) {
+                    timedOut = true;
+                    error = "SSH command timed out after " + step.timeout().toMillis() + " ms: " + step.command();
+                } else if (exit == null) {
+                    error = "No exit status for '" + step.command() + "' stderr=" + err;
+                } else if (exit != 0) {
+                    error = "Remote exit=" + exit + " for '" + step.command() + "' stderr=" + err;
+                }
+                return new SshStepResult(idx, step.command(), exit, timedOut, false, dtMs, out, err, error);
+            });
+
+            recordExec(connections, result.success() ? "success" : result.timedOut() ? "timeout" : "failure", t0);
+            if (result.success()) {
+                log.info("SSH[{}]: OK ({} ms)", idx, result.durationMs());
+                if (!result.stdout().isEmpty()) log.debug("SSH[{}] stdout: {}", idx, result.stdout());
+                if (!result.stderr().isEmpty()) log.debug("SSH[{}] stderr: {}", idx, result.stderr());
+            } else {
+                log.error("SSH[{}]: {} ({} ms)", idx, result.error(), result.durationMs());
+            }
+            return result;
+        } catch (IOException e) {
+            recordExec(connections, "io_error", t0);
+            long dtMs = (System.nanoTime() - t0) / 1_000_000;
+            log.error("SSH[{}]: failure on {} -> {}", idx, connections.target(), e.getMessage());
+            return new SshStepResult(idx, step.command(), null, false, false, dtMs, "", "", e.getMessage());
+        }
+    }
+
+    private void recordExec(SshConnectionManager connections, String outcome, long startNanos) {
+        Timer.builder("ssh.exec")
+                .description("Exécution des commandes SSH, ouverture de session comprise")
+                .tag("target", connections.target())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String pump(InputStream stream, int step, SshOutputListener.Stream kind, SshOutputListener listener) throws IOException {
+        StringBuilder captured = new StringBuilder();
+        boolean truncated = false;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                listener.onLine(step, kind, line);
+                if (captured.length() + line.length() + 1 <= MAX_CAPTURE_CHARS) {
+                    captured.append(line).append('\n');
+                } else {
+                    truncated = true;
+                }
+            }
+        }
+        String s = captured.toString().replaceAll("\\s+$", "");
+        return truncated ? s + " …(truncated)…" : s;
+    }
+
+    private String await(Future<String> output) {
+        try {
+            return output.get(OUTPUT_DRAIN_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            output.cancel(true);
+            return "";
+        }
+    }
+}
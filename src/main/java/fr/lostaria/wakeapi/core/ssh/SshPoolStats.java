@@ -0,0 +1,12 @@
+package fr.lostaria.wakeapi.core.ssh;
+
+public record SshPoolStats(
+        boolean connected,
+        long connects,
+        long reconnects,
+        long evictions,
+        long sessionsOpened,
+        int activeSessions,
+        long lastConnectMs,
+        long idleMs
+) { }
@@ -0,0 +1,22 @@
+package fr.lostaria.wakeapi.core.ssh;
+
+public record SshStepResult(
+        int index,
+        String command,
+        Integer exitStatus,
+        boolean timedOut,
+        boolean skipped,
+        long durationMs,
+        String stdout,
+        String stderr,
+        String error
+) {
+
+    public static SshStepResult skipped(SshPlan.Step step) {
+        return new SshStepResult(step.index(), step.command(), null, false, true, 0, "", "", "skipped after a previous failure");
+    }
+
+    public boolean success() {
+        return error == null && exitStatus != null && exitStatus == 0;
+    }
+}
@@ -0,0 +1,82 @@
+package fr.lostaria.wakeapi.payload;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Corps {@link APIResponse} pré-encodés en UTF-8 pour les endpoints les plus sollicités, avec leur ETag.
+ * L'ensemble des réponses possibles y est petit (quelques codes × un statut) : chaque combinaison n'est
+ * sérialisée qu'une fois. Spring MVC répond 304 tout seul quand l'ETag correspond à {@code If-None-Match}.
+ */
+@Component
+public class APIResponseCache {
+
+    // Garde-fou si un appelant passe un message peu borné (compteur de joueurs…)
+    private static final int MAX_ENTRIES = 1_024;
+
+    public record Encoded(byte[] body, String etag) { }
+
+    private record Key(boolean success, String codeMsg, String message) { }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentMap<Key, Encoded> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResponseEntity<byte[]> respond(HttpStatus status, boolean success, String codeMsg, String message) {
+        return respond(ResponseEntity.status(status), success, codeMsg, message);
+    }
+
+    public ResponseEntity<byte[]> respond(ResponseEntity.BodyBuilder builder, boolean success, String codeMsg, String message) {
+        Encoded encoded = get(success, codeMsg, message);
+        return builder
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(encoded.etag())
+                .body(encoded.body());
+    }
+
+    public Encoded get(boolean success, String codeMsg, String message) {
+        Key key = new Key(success, codeMsg, message);
+        Encoded encoded = entries.get(key);
+        if (encoded != null) {
+            hits.increment();
+            return encoded;
+        }
+        misses.increment();
+        encoded = encode(key);
+        if (entries.size() < MAX_ENTRIES) {
+            Encoded previous = entries.putIfAbsent(key, encoded);
+            if (previous != null) return previous;
+        }
+        return encoded;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    private Encoded encode(Key key) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(new APIResponse(key.success(), key.codeMsg(), key.message()));
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return new Encoded(body, "\"" + HexFormat.of().formatHex(digest, 0, 8) + "\"");
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot encode APIResponse", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package fr.lostaria.wakeapi.payload;
+
+import fr.lostaria.wakeapi.core.InstanceStatus;
+
+/**
+ * Événement de statut diffusé sur les topics d'instance. {@code seq} croît strictement (toutes instances confondues)
+ * au sein d'un même {@code epoch} (démarrage du serveur) : un client ignore ce qu'il a déjà vu et reprend après
+ * {@code <epoch>-<seq>}. {@code players} est nul si inconnu.
+ */
+public record InstanceStatusEvent(String instanceId, InstanceStatus status, String epoch, long seq, String timestamp, Integer players) {
+}
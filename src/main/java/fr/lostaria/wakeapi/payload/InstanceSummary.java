@@ -0,0 +1,4 @@
+package fr.lostaria.wakeapi.payload;
+
+public record InstanceSummary(String id, String name, String status) {
+}
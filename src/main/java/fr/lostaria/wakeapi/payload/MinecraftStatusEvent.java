@@ -0,0 +1,8 @@
+package fr.lostaria.wakeapi.payload;
+
+/**
+ * Événement de statut Minecraft diffusé sur {@code /topic/instance/{id}/minecraft} et {@code /events/minecraft}.
+ * {@code epoch} et {@code seq} sont partagés avec les {@link InstanceStatusEvent}.
+ */
+public record MinecraftStatusEvent(String instanceId, boolean online, String epoch, long seq, String timestamp, int players, int maxPlayers) {
+}
@@ -0,0 +1,7 @@
+package fr.lostaria.wakeapi.payload;
+
+/**
+ * Prochain réveil anticipé prévu pour une instance ; {@code source} vaut {@code window} (cron configuré)
+ * ou {@code learned} (démarrages passés).
+ */
+public record PrewarmPlan(String instanceId, String demandAt, String wakeAt, String source) { }
@@ -0,0 +1,4 @@
+package fr.lostaria.wakeapi.payload;
+
+public record TokenResponse(String token, String tokenType, long expiresIn, String expiresAt) {
+}
@@ -0,0 +1,60 @@
+package fr.lostaria.wakeapi.services;
+
+import fr.lostaria.wakeapi.config.FleetProperties;
+import fr.lostaria.wakeapi.core.FleetInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+public class FleetRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetRegistry.class);
+    private static final int DEFAULT_MINECRAFT_PORT = 25565;
+
+    private final Map<String, FleetInstance> instances;
+    private final FleetInstance defaultInstance;
+
+    public FleetRegistry(
+            FleetProperties properties,
+            @Value("${ovh.instanceId:}") String instanceId,
+            @Value("${minecraft.host:}") String minecraftHost,
+            @Value("${minecraft.port:25565}") int minecraftPort
+    ) {
+        Map<String, FleetInstance> byId = new LinkedHashMap<>();
+        if (properties.instances().isEmpty()) {
+            // Configuration historique : une seule instance décrite par ovh.instanceId / minecraft.host
+            byId.put(instanceId, new FleetInstance(instanceId, "default", minecraftHost, minecraftPort, minecraftHost));
+        } else {
+            for (FleetProperties.Instance i : properties.instances()) {
+                if (i.id() == null || i.id().isBlank()) throw new IllegalStateException("fleet.instances[].id is required");
+                int port = i.minecraftPort() == null ? DEFAULT_MINECRAFT_PORT : i.minecraftPort();
+                String sshHost = i.sshHost() == null || i.sshHost().isBlank() ? i.minecraftHost() : i.sshHost();
+                String name = i.name() == null || i.name().isBlank() ? i.id() : i.name();
+                byId.put(i.id(), new FleetInstance(i.id(), name, i.minecraftHost(), port, sshHost));
+            }
+        }
+        this.instances = Collections.unmodifiableMap(byId);
+        this.defaultInstance = byId.getOrDefault(instanceId, byId.values().iterator().next());
+        log.info("Fleet: {} instance(s), default = {}", byId.size(), defaultInstance.id());
+    }
+
+    public Collection<FleetInstance> all() {
+        return instances.values();
+    }
+
+    public Optional<FleetInstance> find(String id) {
+        return Optional.ofNullable(instances.get(id));
+    }
+
+    public FleetInstance defaultInstance() {
+        return defaultInstance;
+    }
+}
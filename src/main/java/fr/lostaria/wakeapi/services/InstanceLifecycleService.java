@@ -0,0 +1,94 @@
+package fr.lostaria.wakeapi.services;
+
+import fr.lostaria.wakeapi.core.FleetInstance;
+import fr.lostaria.wakeapi.core.InstanceStatus;
+import fr.lostaria.wakeapi.core.exception.OvhApiException;
+import fr.lostaria.wakeapi.core.lifecycle.InstanceLifecycle;
+import fr.lostaria.wakeapi.core.lifecycle.InstanceLifecycleEvent;
+import fr.lostaria.wakeapi.core.lifecycle.LifecycleOutcome;
+import fr.lostaria.wakeapi.core.lifecycle.LifecyclePhase;
+import fr.lostaria.wakeapi.ws.InstanceStatusBroadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Service
+public class InstanceLifecycleService {
+
+    private static final Logger log = LoggerFactory.getLogger(InstanceLifecycleService.class);
+
+    private final OvhApiService ovhApiService;
+    private final InstanceStatusBroadcaster broadcaster;
+    private final ApplicationEventPublisher events;
+    private final ConcurrentMap<String, InstanceLifecycle> lifecycles = new ConcurrentHashMap<>();
+
+    public InstanceLifecycleService(OvhApiService ovhApiService, InstanceStatusBroadcaster broadcaster, ApplicationEventPublisher events) {
+        this.ovhApiService = ovhApiService;
+        this.broadcaster = broadcaster;
+        this.events = events;
+    }
+
+    public LifecycleOutcome start(FleetInstance instance) throws OvhApiException, IOException {
+        return await(lifecycle(instance).request(InstanceLifecycle.Action.START, () -> unshelve(instance)));
+    }
+
+    public LifecycleOutcome stop(FleetInstance instance) throws OvhApiException, IOException {
+        return await(lifecycle(instance).request(InstanceLifecycle.Action.STOP, () -> shelve(instance)));
+    }
+
+    public LifecyclePhase phase(FleetInstance instance) {
+        return lifecycle(instance).phase();
+    }
+
+    public void observe(FleetInstance instance, InstanceStatus status) {
+        lifecycle(instance).observe(status);
+    }
+
+    private LifecycleOutcome unshelve(FleetInstance instance) throws OvhApiException {
+        InstanceStatus status = ovhApiService.getInstanceStatus(instance);
+        if (status.isStarting() || status.isStopping()) return LifecycleOutcome.TRANSITION_IN_PROGRESS;
+        if (status.isRunning()) return LifecycleOutcome.ALREADY_ACTIVE;
+
+        ovhApiService.unshelveInstance(instance);
+        log.info("Lifecycle[{}]: unshelve demandé", instance.id());
+        broadcaster.broadcast(instance, InstanceStatus.UNSHELVING);
+        events.publishEvent(new InstanceLifecycleEvent(instance, LifecyclePhase.UNSHELVING));
+        return LifecycleOutcome.STARTING;
+    }
+
+    private LifecycleOutcome shelve(FleetInstance instance) throws OvhApiException, IOException {
+        InstanceStatus status = ovhApiService.getInstanceStatus(instance);
+        if (status.isStarting() || status.isStopping()) return LifecycleOutcome.TRANSITION_IN_PROGRESS;
+        if (!status.isRunning()) return LifecycleOutcome.NOT_ACTIVE;
+
+        ovhApiService.shelveInstance(instance);
+        log.info("Lifecycle[{}]: shelve demandé", instance.id());
+        broadcaster.broadcast(instance, InstanceStatus.SHELVING);
+        events.publishEvent(new InstanceLifecycleEvent(instance, LifecyclePhase.SHELVING));
+        return LifecycleOutcome.STOPPING;
+    }
+
+    private InstanceLifecycle lifecycle(FleetInstance instance) {
+        return lifecycles.computeIfAbsent(instance.id(), id -> new InstanceLifecycle());
+    }
+
+    private LifecycleOutcome await(CompletableFuture<LifecycleOutcome> operation) throws OvhApiException, IOException {
+        try {
+            return operation.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OvhApiException oe) throw oe;
+            if (cause instanceof IOException ioe) throw ioe;
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
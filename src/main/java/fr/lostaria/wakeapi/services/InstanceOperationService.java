@@ -0,0 +1,125 @@
+package fr.lostaria.wakeapi.services;
+
+import fr.lostaria.wakeapi.core.FleetInstance;
+import fr.lostaria.wakeapi.core.ThreadFactories;
+import fr.lostaria.wakeapi.core.lifecycle.InstanceLifecycle;
+import fr.lostaria.wakeapi.core.lifecycle.LifecycleOutcome;
+import fr.lostaria.wakeapi.core.operation.Operation;
+import fr.lostaria.wakeapi.core.operation.OperationFinishedEvent;
+import fr.lostaria.wakeapi.ws.InstanceStatusBroadcaster;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Exécute les start/stop hors des threads HTTP. Chaque demande reçoit un identifiant d'opération
+ * consultable via /operations/{id} ; la progression est aussi publiée sur STOMP.
+ */
+@Service
+public class InstanceOperationService {
+
+    private static final Logger log = LoggerFactory.getLogger(InstanceOperationService.class);
+
+    private final InstanceLifecycleService lifecycleService;
+    private final InstanceStatusBroadcaster broadcaster;
+    private final ApplicationEventPublisher events;
+    private final ExecutorService executor;
+    private final Duration retention;
+
+    private final ConcurrentMap<String, Operation> operations = new ConcurrentHashMap<>();
+    // instance:action -> opération en cours, pour rendre le même identifiant aux demandes concurrentes
+    private final ConcurrentMap<String, String> inFlight = new ConcurrentHashMap<>();
+
+    public InstanceOperationService(
+            InstanceLifecycleService lifecycleService,
+            InstanceStatusBroadcaster broadcaster,
+            ApplicationEventPublisher events,
+            @Value("${instance.operations.threads:4}") int threads,
+            @Value("${instance.operations.retentionMinutes:60}") long retentionMinutes,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.lifecycleService = lifecycleService;
+        this.broadcaster = broadcaster;
+        this.events = events;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.executor = ThreadFactories.executor("instance-op-", virtualThreads, threads);
+    }
+
+    public Operation submit(FleetInstance instance, InstanceLifecycle.Action action) {
+        purgeExpired();
+        String key = instance.id() + ":" + action;
+        AtomicReference<Operation> created = new AtomicReference<>();
+        String id = inFlight.computeIfAbsent(key, k -> {
+            Operation op = Operation.pending(instance.id(), action);
+            operations.put(op.id(), op);
+            created.set(op);
+            return op.id();
+        });
+
+        Operation op = created.get();
+        if (op == null) {
+            return operations.get(id);
+        }
+        log.info("Operation[{}]: {} {} acceptée", op.id(), action, instance.id());
+        broadcaster.broadcastOperation(op);
+        try {
+            executor.execute(() -> run(key, op.id(), instance, action));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, op.id());
+            return publish(op.id(), o -> o.failed("Operation executor unavailable"));
+        }
+        return op;
+    }
+
+    public Optional<Operation> find(String id) {
+        return Optional.ofNullable(operations.get(id));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(String key, String id, FleetInstance instance, InstanceLifecycle.Action action) {
+        publish(id, Operation::running);
+        try {
+            LifecycleOutcome outcome = action == InstanceLifecycle.Action.START
+                    ? lifecycleService.start(instance)
+                    : lifecycleService.stop(instance);
+            inFlight.remove(key, id);
+            Operation done = publish(id, o -> o.completed(outcome));
+            log.info("Operation[{}]: {} ({})", id, done.state(), outcome);
+        } catch (Exception e) {
+            inFlight.remove(key, id);
+            publish(id, o -> o.failed(e.getMessage()));
+            log.error("Operation[{}]: échec — {}", id, e.getMessage());
+        }
+    }
+
+    private Operation publish(String id, UnaryOperator<Operation> update) {
+        Operation op = operations.computeIfPresent(id, (k, o) -> update.apply(o));
+        if (op != null) {
+            broadcaster.broadcastOperation(op);
+            if (op.state().isDone()) events.publishEvent(new OperationFinishedEvent(op));
+        }
+        return op;
+    }
+
+    private void purgeExpired() {
+        Instant limit = Instant.now().minus(retention);
+        operations.values().removeIf(op -> op.state().isDone() && op.updatedAt().isBefore(limit));
+    }
+}
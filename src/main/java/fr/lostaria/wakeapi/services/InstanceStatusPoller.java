@@ -0,0 +1,114 @@
+package fr.lostaria.wakeapi.services;
+
+import fr.lostaria.wakeapi.core.FleetInstance;
+import fr.lostaria.wakeapi.core.InstanceStatus;
+import fr.lostaria.wakeapi.core.lifecycle.InstanceLifecycleEvent;
+import fr.lostaria.wakeapi.ws.InstanceStatusBroadcaster;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public class InstanceStatusPoller {
+
+    private static final Logger log = LoggerFactory.getLogger(InstanceStatusPoller.class);
+
+    private final TaskScheduler scheduler;
+    private final OvhApiService ovhApiService;
+    private final FleetRegistry fleet;
+    private final InstanceStatusBroadcaster broadcaster;
+    private final InstanceLifecycleService lifecycleService;
+
+    private final boolean enabled;
+    private final Duration fastInterval;
+    private final Duration slowInterval;
+
+    private final AtomicReference<ScheduledFuture<?>> futureRef = new AtomicReference<>();
+    private final AtomicBoolean pollRequested = new AtomicBoolean(true);
+    private volatile long nextPollAtNanos = System.nanoTime();
+
+    public InstanceStatusPoller(
+            TaskScheduler scheduler,
+            OvhApiService ovhApiService,
+            FleetRegistry fleet,
+            InstanceStatusBroadcaster broadcaster,
+            InstanceLifecycleService lifecycleService,
+            @Value("${instance.poller.enabled:true}") boolean enabled,
+            @Value("${instance.poller.fastIntervalMs:5000}") long fastIntervalMs,
+            @Value("${instance.poller.slowIntervalMs:60000}") long slowIntervalMs
+    ) {
+        this.scheduler = scheduler;
+        this.ovhApiService = ovhApiService;
+        this.fleet = fleet;
+        this.broadcaster = broadcaster;
+        this.lifecycleService = lifecycleService;
+        this.enabled = enabled;
+        this.fastInterval = Duration.ofMillis(fastIntervalMs);
+        this.slowInterval = Duration.ofMillis(slowIntervalMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("StatusPoller: désactivé");
+            return;
+        }
+        // Le tick tourne à la cadence rapide, mais n'interroge OVH qu'à l'échéance courante
+        ScheduledFuture<?> f = scheduler.scheduleWithFixedDelay(this::tick, fastInterval);
+        ScheduledFuture<?> previous = futureRef.getAndSet(f);
+        if (previous != null) previous.cancel(false);
+        log.info("StatusPoller: démarré (rapide={}, lent={})", fastInterval, slowInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ScheduledFuture<?> f = futureRef.getAndSet(null);
+        if (f != null) f.cancel(false);
+    }
+
+    public void pollSoon() {
+        pollRequested.set(true);
+    }
+
+    @EventListener
+    public void onLifecycle(InstanceLifecycleEvent event) {
+        pollSoon();
+    }
+
+    private void tick() {
+        boolean requested = pollRequested.getAndSet(false);
+        if (!requested && System.nanoTime() - nextPollAtNanos < 0) {
+            return;
+        }
+
+        Duration next = slowInterval;
+        try {
+            // Un seul appel OVH pour toute la flotte
+            Map<String, InstanceStatus> statuses = ovhApiService.getInstanceStatuses();
+            for (FleetInstance instance : fleet.all()) {
+                InstanceStatus status = statuses.getOrDefault(instance.id(), InstanceStatus.UNKNOWN);
+                lifecycleService.observe(instance, status);
+                if (broadcaster.broadcastIfChanged(instance, status)) {
+                    log.info("StatusPoller[{}]: nouveau statut {}", instance.id(), status);
+                }
+                if (status.isStarting() || status.isStopping()) {
+                    next = fastInterval;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("StatusPoller: erreur pendant le poll — {}", e.getMessage());
+        }
+        nextPollAtNanos = System.nanoTime() + next.toNanos();
+    }
+}
@@ -1,16 +1,29 @@
 package fr.lostaria.wakeapi.services;
 
+import fr.lostaria.wakeapi.core.FleetInstance;
 import fr.lostaria.wakeapi.core.InstanceStatus;
-import fr.lostaria.wakeapi.ws.InstanceStatusBroadcaster;
+import fr.lostaria.wakeapi.core.MinecraftStatus;
+import fr.lostaria.wakeapi.core.lifecycle.InstanceLifecycle;
+import fr.lostaria.wakeapi.core.lifecycle.InstanceLifecycleEvent;
+import fr.lostaria.wakeapi.core.lifecycle.LifecycleOutcome;
+import fr.lostaria.wakeapi.core.operation.Operation;
+import fr.lostaria.wakeapi.core.operation.OperationFinishedEvent;
+import fr.lostaria.wakeapi.core.shelve.ShelveDecision;
+import fr.lostaria.wakeapi.core.shelve.ShelvePolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class InstanceWatchService {
@@ -20,69 +33,162 @@ public class InstanceWatchService {
     private final TaskScheduler scheduler;
     private final MinecraftService minecraftService;
     private final OvhApiService ovhApiService;
-    private final InstanceStatusBroadcaster broadcaster;
+    private final InstanceOperationService operationService;
+    private final MeterRegistry meterRegistry;
+    private final ShelvePolicy policy;
 
-    private static final Duration INITIAL_DELAY = Duration.ofMinutes(20);
-    private static final Duration RECHECK_WHEN_PLAYERS = Duration.ofMinutes(5);
     private static final Duration RECHECK_ON_ERROR = Duration.ofMinutes(5);
 
-    private final AtomicReference<ScheduledFuture<?>> futureRef = new AtomicReference<>();
+    private final ConcurrentMap<String, ScheduledFuture<?>> futures = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ShelvePolicy.Tracker> trackers = new ConcurrentHashMap<>();
+    // Instances réveillées à l'avance : la surveillance compte comme si la session démarrait à l'heure attendue
+    private final ConcurrentMap<String, Instant> holds = new ConcurrentHashMap<>();
+    // Shelve automatique en cours : la surveillance reste armée tant que l'opération n'a pas abouti
+    private final ConcurrentMap<String, PendingShelve> shelving = new ConcurrentHashMap<>();
 
-    public InstanceWatchService(TaskScheduler scheduler, MinecraftService minecraftService, OvhApiService ovhApiService, InstanceStatusBroadcaster broadcaster) {
+    private record PendingShelve(FleetInstance instance, String operationId) { }
+
+    public InstanceWatchService(TaskScheduler scheduler, MinecraftService minecraftService, OvhApiService ovhApiService,
+                                InstanceOperationService operationService, MeterRegistry meterRegistry, ShelvePolicy policy) {
         this.scheduler = scheduler;
         this.minecraftService = minecraftService;
         this.ovhApiService = ovhApiService;
-        this.broadcaster = broadcaster;
+        this.operationService = operationService;
+        this.meterRegistry = meterRegistry;
+        this.policy = policy;
+    }
+
+    @EventListener
+    public void onLifecycle(InstanceLifecycleEvent event) {
+        switch (event.phase()) {
+            case UNSHELVING -> startWatchAfterOneHour(event.instance());
+            case SHELVING -> {
+                holds.remove(event.instance().id());
+                cancel(event.instance());
+            }
+            default -> { }
+        }
     }
 
-    public void startWatchAfterOneHour() {
-        cancel();
-        schedule(this::checkAndMaybeShelve, INITIAL_DELAY);
-        log.info("InstanceWatch: démarrage de la surveillance dans {}", INITIAL_DELAY);
+    public void startWatchAfterOneHour(FleetInstance instance) {
+        cancel(instance);
+        Instant now = Instant.now();
+        Instant hold = holds.get(instance.id());
+        if (hold != null && !hold.isAfter(now)) {
+            holds.remove(instance.id(), hold);
+            hold = null;
+        }
+        Instant sessionStart = hold != null ? hold : now;
+        ShelvePolicy.Tracker tracker = policy.start(sessionStart);
+        trackers.put(instance.id(), tracker);
+        Duration delay = Duration.between(now, sessionStart).plus(tracker.firstCheck());
+        schedule(instance, delay);
+        log.info("InstanceWatch[{}]: démarrage de la surveillance dans {}", instance.id(), delay);
     }
 
-    public void cancel() {
-        ScheduledFuture<?> f = futureRef.getAndSet(null);
+    /**
+     * Ne pas shelver l'instance avant {@code demandAt} (plus la grâce normale de la politique).
+     * Si la surveillance tourne déjà, elle repart à partir de cette échéance.
+     */
+    public void holdUntil(FleetInstance instance, Instant demandAt) {
+        holds.put(instance.id(), demandAt);
+        if (trackers.containsKey(instance.id())) {
+            startWatchAfterOneHour(instance);
+        }
+    }
+
+    /** Retire l'échéance posée par {@link #holdUntil} si elle n'a pas été remplacée entre-temps. */
+    public void releaseHold(FleetInstance instance, Instant demandAt) {
+        holds.remove(instance.id(), demandAt);
+    }
+
+    @EventListener
+    public void onOperationFinished(OperationFinishedEvent event) {
+        PendingShelve pending = shelving.get(event.operation().instanceId());
+        if (pending != null && pending.operationId().equals(event.operation().id())) {
+            shelveFinished(pending, event.operation());
+        }
+    }
+
+    public void cancel(FleetInstance instance) {
+        shelving.remove(instance.id());
+        trackers.remove(instance.id());
+        ScheduledFuture<?> f = futures.remove(instance.id());
         if (f != null) f.cancel(false);
     }
 
-    private void schedule(Runnable task, Duration delay) {
-        ScheduledFuture<?> f = scheduler.schedule(task, Instant.now().plus(delay));
-        futureRef.set(f);
+    private void schedule(FleetInstance instance, Duration delay) {
+        ScheduledFuture<?> f = scheduler.schedule(() -> checkAndMaybeShelve(instance), Instant.now().plus(delay));
+        futures.put(instance.id(), f);
     }
 
-    private void checkAndMaybeShelve() {
+    private void checkAndMaybeShelve(FleetInstance instance) {
+        String id = instance.id();
+        long t0 = System.nanoTime();
+        String decision = "error";
         try {
-            boolean instanceOnline = ovhApiService.getInstanceStatus().isRunning() || ovhApiService.getInstanceStatus().isStarting();
+            InstanceStatus instanceStatus = ovhApiService.getInstanceStatus(instance);
+            boolean instanceOnline = instanceStatus.isRunning() || instanceStatus.isStarting();
             if (!instanceOnline) {
-                cancel();
+                decision = "instance_offline";
+                cancel(instance);
                 return;
             }
 
-            boolean minecraftOnline = minecraftService.isServerOnline();
-            if (!minecraftOnline) {
-                log.info("InstanceWatch: Minecraft OFFLINE — shelve de l’instance");
-                ovhApiService.shelveInstance();
-                broadcaster.broadcast(InstanceStatus.SHELVING);
-                cancel();
+            ShelvePolicy.Tracker tracker = trackers.get(id);
+            if (tracker == null) {
+                decision = "cancelled";
                 return;
             }
 
-            int players = minecraftService.getOnlinePlayersCount();
-            log.info("InstanceWatch: Minecraft ONLINE, joueurs connectés = {}", players);
+            MinecraftStatus minecraft = minecraftService.getFreshStatus(instance);
+            int players = minecraft.online() ? minecraft.playersOnline() : ShelvePolicy.MINECRAFT_OFFLINE;
+            ShelveDecision next = tracker.onSample(Instant.now(), players);
+            decision = next.reason();
 
-            if (players <= 0) {
-                log.info("InstanceWatch: 0 joueur — shelve de l’instance");
-                ovhApiService.shelveInstance();
-                broadcaster.broadcast(InstanceStatus.SHELVING);
-                cancel();
+            if (next.shelve()) {
+                log.info("InstanceWatch[{}]: {} — shelve de l’instance", id, minecraft.online() ? players + " joueur(s)" : "Minecraft OFFLINE");
+                shelve(instance);
             } else {
-                log.info("InstanceWatch: {} joueur(s) — re-check dans {}", players, RECHECK_WHEN_PLAYERS);
-                schedule(this::checkAndMaybeShelve, RECHECK_WHEN_PLAYERS);
+                log.info("InstanceWatch[{}]: {} — re-check dans {} ({})", id,
+                        minecraft.online() ? players + " joueur(s)" : "Minecraft OFFLINE", next.nextCheck(), next.reason());
+                schedule(instance, next.nextCheck());
             }
         } catch (Exception e) {
-            log.warn("InstanceWatch: erreur pendant le check — {}", e.getMessage(), e);
-            schedule(this::checkAndMaybeShelve, RECHECK_ON_ERROR);
+            log.warn("InstanceWatch[{}]: erreur pendant le check — {}", id, e.getMessage(), e);
+            schedule(instance, RECHECK_ON_ERROR);
+        } finally {
+            Timer.builder("instance.watch.checks")
+                    .description("Vérifications du watcher d'inactivité, par décision prise")
+                    .tag("instance", id)
+                    .tag("decision", decision)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Le shelve (SSH + OVH) tourne sur l'exécuteur des opérations pour ne pas bloquer le scheduler
+    private void shelve(FleetInstance instance) {
+        Operation op = operationService.submit(instance, InstanceLifecycle.Action.STOP);
+        log.info("InstanceWatch[{}]: opération de shelve {}", instance.id(), op.id());
+        PendingShelve pending = new PendingShelve(instance, op.id());
+        shelving.put(instance.id(), pending);
+        // L'opération a pu se terminer avant l'enregistrement : son événement est alors déjà passé
+        operationService.find(op.id())
+                .filter(o -> o.state().isDone())
+                .ifPresent(o -> shelveFinished(pending, o));
+    }
+
+    private void shelveFinished(PendingShelve pending, Operation op) {
+        if (!shelving.remove(pending.instance().id(), pending)) return;
+        if (op.outcome() == LifecycleOutcome.STOPPING) {
+            cancel(pending.instance());
+            return;
         }
+        if (!trackers.containsKey(pending.instance().id())) return;
+        log.warn("InstanceWatch[{}]: shelve non effectué ({}) — re-check dans {}", pending.instance().id(),
+                op.error() != null ? op.error() : op.outcome(), RECHECK_ON_ERROR);
+        schedule(pending.instance(), RECHECK_ON_ERROR);
     }
 }
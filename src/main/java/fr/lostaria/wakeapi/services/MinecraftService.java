@@ -1,123 +1,126 @@
 package fr.lostaria.wakeapi.services;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.lostaria.wakeapi.core.FleetInstance;
 import fr.lostaria.wakeapi.core.MinecraftStatus;
+import fr.lostaria.wakeapi.core.MinecraftStatusChangedEvent;
+import fr.lostaria.wakeapi.core.cache.CacheStats;
+import fr.lostaria.wakeapi.core.cache.CoalescingCache;
+import fr.lostaria.wakeapi.core.cache.Snapshot;
+import fr.lostaria.wakeapi.core.slp.SlpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
-import java.net.InetSocketAddress;
-import java.net.Socket;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class MinecraftService {
 
-    @Value("${minecraft.host}")
-    private String host;
-
-    @Value("${minecraft.port:25565}")
-    private int port;
-
     private static final int DEFAULT_TIMEOUT_MILLIS = 3000;
-    private static final int PROTOCOL_VERSION = 47;
-
-    private final ObjectMapper mapper = new ObjectMapper();
 
-    public boolean isServerOnline() {
-        return isServerOnline(DEFAULT_TIMEOUT_MILLIS);
+    private final SlpClient slpClient;
+    private final FleetRegistry fleet;
+    private final MeterRegistry meterRegistry;
+    private final Duration statusCacheTtl;
+    private final Duration statusStale;
+    private final ConcurrentMap<String, CoalescingCache<MinecraftStatus, RuntimeException>> statusCaches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MinecraftStatus> lastPublished = new ConcurrentHashMap<>();
+    private final ApplicationEventPublisher events;
+
+    public MinecraftService(
+            SlpClient slpClient,
+            FleetRegistry fleet,
+            MeterRegistry meterRegistry,
+            ApplicationEventPublisher events,
+            @Value("${minecraft.statusCacheTtlMs:5000}") long statusCacheTtlMs,
+            @Value("${minecraft.statusStaleMs:30000}") long statusStaleMs
+    ) {
+        this.slpClient = slpClient;
+        this.fleet = fleet;
+        this.meterRegistry = meterRegistry;
+        this.events = events;
+        this.statusCacheTtl = Duration.ofMillis(statusCacheTtlMs);
+        this.statusStale = Duration.ofMillis(statusStaleMs);
     }
 
-    public boolean isServerOnline(int timeoutMs) {
-        try {
-            MinecraftStatus s = fetchStatus(timeoutMs);
-            return s.online();
-        } catch (IOException e) {
-            return false;
-        }
+    public boolean isServerOnline() {
+        return getStatus(fleet.defaultInstance()).online();
     }
 
     public int getOnlinePlayersCount() {
-        return getOnlinePlayersCount(DEFAULT_TIMEOUT_MILLIS);
+        MinecraftStatus s = getStatus(fleet.defaultInstance());
+        return s.online() ? s.playersOnline() : 0;
     }
 
-    public int getOnlinePlayersCount(int timeoutMs) {
-        try {
-            MinecraftStatus s = fetchStatus(timeoutMs);
-            return s.online() ? s.playersOnline() : 0;
-        } catch (IOException e) {
-            return 0;
-        }
+    public MinecraftStatus getStatus(FleetInstance instance) {
+        return cache(instance).get();
     }
 
-    private MinecraftStatus fetchStatus(int timeoutMs) throws IOException {
-        try (Socket socket = new Socket()) {
-            socket.connect(new InetSocketAddress(host, port), timeoutMs);
-            socket.setSoTimeout(timeoutMs);
-
-            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-            DataInputStream in = new DataInputStream(socket.getInputStream());
-
-            ByteArrayOutputStream handshakeBytes = new ByteArrayOutputStream();
-            DataOutputStream handshake = new DataOutputStream(handshakeBytes);
-            handshake.writeByte(0x00);
-            writeVarInt(handshake, PROTOCOL_VERSION);
-            writeString(handshake, host);
-            handshake.writeShort(port);
-            writeVarInt(handshake, 1);
-
-            writeVarInt(out, handshakeBytes.size());
-            out.write(handshakeBytes.toByteArray());
-
-            writeVarInt(out, 1);
-            out.writeByte(0x00);
+    public Snapshot<MinecraftStatus> getStatusSnapshot(FleetInstance instance) {
+        return cache(instance).getSnapshot();
+    }
 
-            readVarInt(in);
-            int packetId = readVarInt(in);
-            if (packetId != 0x00) throw new IOException("Invalid packetId: " + packetId);
+    public MinecraftStatus getFreshStatus(FleetInstance instance) {
+        return cache(instance).getFresh();
+    }
 
-            int jsonLength = readVarInt(in);
-            byte[] jsonBytes = new byte[jsonLength];
-            in.readFully(jsonBytes);
-            String json = new String(jsonBytes, StandardCharsets.UTF_8);
+    public Optional<Snapshot<MinecraftStatus>> getCachedStatus(FleetInstance instance) {
+        CoalescingCache<MinecraftStatus, RuntimeException> cache = statusCaches.get(instance.id());
+        return cache == null ? Optional.empty() : cache.peek();
+    }
 
-            JsonNode root = mapper.readTree(json);
-            int onlinePlayers = root.path("players").path("online").asInt(0);
+    public Map<String, CacheStats> getStatusCacheStats() {
+        Map<String, CacheStats> stats = new TreeMap<>();
+        statusCaches.forEach((id, cache) -> stats.put(id, cache.stats()));
+        return stats;
+    }
 
-            return new MinecraftStatus(true, onlinePlayers);
+    public MinecraftStatus getStatus(FleetInstance instance, int timeoutMs) {
+        try {
+            return fetchStatus(instance, timeoutMs).join();
+        } catch (CompletionException | CancellationException e) {
+            return MinecraftStatus.OFFLINE;
         }
     }
 
-    private void writeVarInt(DataOutputStream out, int value) throws IOException {
-        while ((value & -128) != 0) {
-            out.writeByte(value & 127 | 128);
-            value >>>= 7;
-        }
-        out.writeByte(value);
+    public CompletableFuture<MinecraftStatus> fetchStatus(FleetInstance instance, int timeoutMs) {
+        long t0 = System.nanoTime();
+        return slpClient.ping(instance.minecraftHost(), instance.minecraftPort(), Duration.ofMillis(timeoutMs))
+                .whenComplete((status, error) -> Timer.builder("minecraft.ping")
+                        .description("Pings Server List Ping vers les serveurs Minecraft")
+                        .tag("instance", instance.id())
+                        .tag("outcome", error instanceof TimeoutException ? "timeout" : error != null ? "error" : "success")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - t0, TimeUnit.NANOSECONDS));
     }
 
-    private int readVarInt(DataInputStream in) throws IOException {
-        int numRead = 0;
-        int result = 0;
-        byte read;
-        do {
-            read = in.readByte();
-            int value = (read & 0b0111_1111);
-            result |= (value << (7 * numRead));
-
-            numRead++;
-            if (numRead > 5) throw new IOException("VarInt too big");
-        } while ((read & 0b1000_0000) != 0);
-        return result;
+    private CoalescingCache<MinecraftStatus, RuntimeException> cache(FleetInstance instance) {
+        return statusCaches.computeIfAbsent(instance.id(), id -> CoalescingCache.async(
+                statusCacheTtl,
+                statusStale,
+                () -> fetchStatus(instance, DEFAULT_TIMEOUT_MILLIS)
+                        .exceptionally(e -> MinecraftStatus.OFFLINE)
+                        .whenComplete((status, e) -> publishIfChanged(instance, status))
+        ));
     }
 
-    private void writeString(DataOutputStream out, String s) throws IOException {
-        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
-        writeVarInt(out, bytes.length);
-        out.write(bytes);
+    private void publishIfChanged(FleetInstance instance, MinecraftStatus status) {
+        MinecraftStatus previous = lastPublished.put(instance.id(), status);
+        if (previous == null || previous.online() != status.online() || previous.playersOnline() != status.playersOnline()) {
+            events.publishEvent(new MinecraftStatusChangedEvent(instance, status));
+        }
     }
 }
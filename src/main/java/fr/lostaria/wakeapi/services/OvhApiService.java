@@ -1,56 +1,117 @@
 package fr.lostaria.wakeapi.services;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import fr.lostaria.wakeapi.core.FleetInstance;
 import fr.lostaria.wakeapi.core.InstanceStatus;
 import fr.lostaria.wakeapi.core.OvhApi;
+import fr.lostaria.wakeapi.core.cache.CacheStats;
+import fr.lostaria.wakeapi.core.cache.CoalescingCache;
 import fr.lostaria.wakeapi.core.exception.OvhApiException;
 import fr.lostaria.wakeapi.core.exception.OvhApiExceptionCause;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 @Service
 public class OvhApiService {
 
     private final OvhApi ovhApi;
     private final SshService sshService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FleetRegistry fleet;
+    // Un seul appel de liste alimente le statut de toutes les instances de la flotte
+    private final CoalescingCache<Map<String, InstanceStatus>, OvhApiException> statusCache;
 
     @Value("${ovh.serviceId}")
     private String serviceId;
 
-    @Value("${ovh.instanceId}")
-    private String instanceId;
-
-    public OvhApiService(OvhApi ovhApi, SshService sshService) {
+    public OvhApiService(OvhApi ovhApi, SshService sshService, FleetRegistry fleet, @Value("${ovh.statusCacheTtlMs:2000}") long statusCacheTtlMs) {
         this.ovhApi = ovhApi;
         this.sshService = sshService;
+        this.fleet = fleet;
+        this.statusCache = new CoalescingCache<>(Duration.ofMillis(statusCacheTtlMs), this::fetchInstanceStatuses);
+    }
+
+    public Map<String, InstanceStatus> getInstanceStatuses() throws OvhApiException {
+        return statusCache.get();
+    }
+
+    public InstanceStatus getInstanceStatus(FleetInstance instance) throws OvhApiException {
+        InstanceStatus status = getInstanceStatuses().get(instance.id());
+        if (status == null) {
+            throw new OvhApiException("Instance not found on OVH: " + instance.id(), OvhApiExceptionCause.RESSOURCE_NOT_FOUND);
+        }
+        return status;
     }
 
     public InstanceStatus getInstanceStatus() throws OvhApiException {
-        String response = ovhApi.get("/cloud/project/" + serviceId + "/instance/" + instanceId);
+        return getInstanceStatus(fleet.defaultInstance());
+    }
 
-        try {
-            JsonNode root = objectMapper.readTree(response);
-            String status = root.path("status").asText("");
-            return InstanceStatus.from(status);
-        } catch (Exception e) {
-            throw new OvhApiException("Invalid JSON from OVH: " + e.getMessage(), OvhApiExceptionCause.API_ERROR);
+    public CacheStats getStatusCacheStats() {
+        return statusCache.stats();
+    }
+
+    private Map<String, InstanceStatus> fetchInstanceStatuses() throws OvhApiException {
+        return ovhApi.get("/cloud/project/" + serviceId + "/instance", this::readInstanceStatuses);
+    }
+
+    // Parcours en flux de la liste : seuls id et status sont lus, le reste de chaque instance est sauté
+    private Map<String, InstanceStatus> readInstanceStatuses(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected an array of instances");
+        }
+        Map<String, InstanceStatus> statuses = new HashMap<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+            String id = "";
+            String status = "";
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_STRING && "id".equals(field)) {
+                    id = parser.getText();
+                } else if (value == JsonToken.VALUE_STRING && "status".equals(field)) {
+                    status = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (fleet.find(id).isPresent()) {
+                statuses.put(id, InstanceStatus.from(status));
+            }
+        }
+        if (token != JsonToken.END_ARRAY) {
+            throw new JsonParseException(parser, "Unexpected token in instance list: " + token);
         }
+        return Collections.unmodifiableMap(statuses);
     }
 
-    public void unshelveInstance() throws OvhApiException {
-        ovhApi.post("/cloud/project/" + serviceId + "/instance/" + instanceId + "/unshelve", "", true);
+    public void unshelveInstance(FleetInstance instance) throws OvhApiException {
+        try {
+            ovhApi.post("/cloud/project/" + serviceId + "/instance/" + instance.id() + "/unshelve", "", true);
+        } finally {
+            statusCache.invalidate();
+        }
     }
 
-    public void shelveInstance() throws OvhApiException, IOException {
+    public void shelveInstance(FleetInstance instance) throws OvhApiException, IOException {
         sshService.execOrThrow(
+                instance.sshHost(),
                 "sudo -n systemctl stop mcproxy",
                 "rm -rf /srv/MinecraftServer/dev/special/Construction/*"
         );
-        ovhApi.post("/cloud/project/" + serviceId + "/instance/" + instanceId + "/shelve", "", true);
+        try {
+            ovhApi.post("/cloud/project/" + serviceId + "/instance/" + instance.id() + "/shelve", "", true);
+        } finally {
+            statusCache.invalidate();
+        }
     }
 
 }
@@ -0,0 +1,201 @@
+package fr.lostaria.wakeapi.services;
+
+import fr.lostaria.wakeapi.config.PrewarmProperties;
+import fr.lostaria.wakeapi.core.FleetInstance;
+import fr.lostaria.wakeapi.core.lifecycle.InstanceLifecycle;
+import fr.lostaria.wakeapi.core.operation.Operation;
+import fr.lostaria.wakeapi.core.operation.OperationFinishedEvent;
+import fr.lostaria.wakeapi.core.operation.OperationState;
+import fr.lostaria.wakeapi.core.prewarm.DemandPredictor;
+import fr.lostaria.wakeapi.core.prewarm.StartHistory;
+import fr.lostaria.wakeapi.payload.PrewarmPlan;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Réveille une instance {@code lead} avant une demande attendue (fenêtre cron ou créneau appris des démarrages passés)
+ * pour que les joueurs n'attendent pas l'unshelve ; la surveillance ne peut pas la shelver avant l'heure attendue.
+ */
+@Service
+public class PrewarmService {
+
+    private static final Logger log = LoggerFactory.getLogger(PrewarmService.class);
+    private static final Duration TICK = Duration.ofMinutes(1);
+
+    private record Demand(Instant at, String source) { }
+
+    private record WarmUp(FleetInstance instance, String operationId, Instant demandAt) { }
+
+    private final PrewarmProperties properties;
+    private final FleetRegistry fleet;
+    private final OvhApiService ovhApiService;
+    private final InstanceOperationService operationService;
+    private final InstanceWatchService watchService;
+    private final TaskScheduler scheduler;
+    private final ZoneId zone;
+    private final Map<String, List<CronExpression>> windows = new ConcurrentHashMap<>();
+    private final DemandPredictor predictor;
+    private final StartHistory history;
+
+    // Dernière demande déjà préparée par instance : un seul réveil par demande
+    private final Map<String, Instant> lastWarmedFor = new ConcurrentHashMap<>();
+    // Réveil en cours par instance : en cas d'échec la demande redevient éligible
+    private final Map<String, WarmUp> warmingUp = new ConcurrentHashMap<>();
+    private final AtomicReference<ScheduledFuture<?>> tick = new AtomicReference<>();
+
+    public PrewarmService(PrewarmProperties properties, FleetRegistry fleet, OvhApiService ovhApiService,
+                          InstanceOperationService operationService, InstanceWatchService watchService, TaskScheduler scheduler) {
+        this.properties = properties;
+        this.fleet = fleet;
+        this.ovhApiService = ovhApiService;
+        this.operationService = operationService;
+        this.watchService = watchService;
+        this.scheduler = scheduler;
+        this.zone = properties.zone() == null || properties.zone().isBlank() ? ZoneId.systemDefault() : ZoneId.of(properties.zone());
+
+        for (PrewarmProperties.Window w : properties.windows()) {
+            if (w.cron() == null) throw new IllegalStateException("instance.prewarm.windows[].cron is required");
+            String id = w.instanceId() == null || w.instanceId().isBlank() ? fleet.defaultInstance().id() : w.instanceId();
+            if (fleet.find(id).isEmpty()) throw new IllegalStateException("instance.prewarm.windows[]: unknown instance " + id);
+            windows.computeIfAbsent(id, k -> new ArrayList<>()).add(CronExpression.parse(w.cron()));
+        }
+
+        PrewarmProperties.Learning learning = properties.learning();
+        this.predictor = new DemandPredictor(zone, learning.weeks(), learning.minWeeks(), learning.slot());
+        Path file = learning.historyFile() == null || learning.historyFile().isBlank() ? null : Path.of(learning.historyFile());
+        this.history = new StartHistory(file, Duration.ofDays(7L * learning.weeks()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) return;
+        replace(scheduler.scheduleAtFixedRate(this::tick, TICK));
+        log.info("Prewarm: actif (avance={}, {} fenêtre(s), apprentissage={})",
+                properties.lead(), windows.values().stream().mapToInt(List::size).sum(), properties.learning().enabled());
+    }
+
+    @PreDestroy
+    public void stop() {
+        replace(null);
+    }
+
+    /** Démarrage demandé par un client ; les réveils anticipés ne sont pas enregistrés pour ne pas s'auto-entretenir. */
+    public void recordStart(FleetInstance instance) {
+        history.record(instance.id(), Instant.now());
+    }
+
+    public List<PrewarmPlan> plan() {
+        Instant now = Instant.now();
+        List<PrewarmPlan> plans = new ArrayList<>();
+        for (FleetInstance instance : fleet.all()) {
+            nextDemand(instance, now).ifPresent(d -> plans.add(new PrewarmPlan(
+                    instance.id(), d.at().toString(), d.at().minus(properties.lead()).toString(), d.source())));
+        }
+        return plans;
+    }
+
+    void tick() {
+        Instant now = Instant.now();
+        for (FleetInstance instance : fleet.all()) {
+            try {
+                nextDemand(instance, now)
+                        .filter(d -> !now.isBefore(d.at().minus(properties.lead())))
+                        .filter(d -> !d.at().equals(lastWarmedFor.get(instance.id())))
+                        .ifPresent(d -> warm(instance, d));
+            } catch (Exception e) {
+                log.warn("Prewarm[{}]: échec — {}", instance.id(), e.getMessage());
+            }
+        }
+    }
+
+    @EventListener
+    public void onOperationFinished(OperationFinishedEvent event) {
+        WarmUp warmUp = warmingUp.get(event.operation().instanceId());
+        if (warmUp != null && warmUp.operationId().equals(event.operation().id())) {
+            warmUpFinished(warmUp, event.operation());
+        }
+    }
+
+    private void warm(FleetInstance instance, Demand demand) {
+        boolean stopped;
+        try {
+            stopped = ovhApiService.getInstanceStatus(instance).isStopped();
+        } catch (Exception e) {
+            // Rien n'est retenu : la demande sera retentée au prochain tick
+            log.warn("Prewarm[{}]: statut OVH indisponible — {}", instance.id(), e.getMessage());
+            return;
+        }
+        // Avant le démarrage : la surveillance lancée à l'unshelve doit déjà voir l'échéance
+        watchService.holdUntil(instance, demand.at());
+        if (!stopped) {
+            lastWarmedFor.put(instance.id(), demand.at());
+            log.info("Prewarm[{}]: déjà allumée, maintenue jusqu'à {} ({})", instance.id(), demand.at(), demand.source());
+            return;
+        }
+        Operation op = operationService.submit(instance, InstanceLifecycle.Action.START);
+        if (op.state() == OperationState.FAILED) {
+            watchService.releaseHold(instance, demand.at());
+            log.warn("Prewarm[{}]: réveil impossible — {}", instance.id(), op.error());
+            return;
+        }
+        lastWarmedFor.put(instance.id(), demand.at());
+        log.info("Prewarm[{}]: réveil anticipé pour {} ({})", instance.id(), demand.at(), demand.source());
+
+        WarmUp warmUp = new WarmUp(instance, op.id(), demand.at());
+        warmingUp.put(instance.id(), warmUp);
+        // L'opération a pu se terminer avant l'enregistrement : son événement est alors déjà passé
+        operationService.find(op.id())
+                .filter(o -> o.state().isDone())
+                .ifPresent(o -> warmUpFinished(warmUp, o));
+    }
+
+    private void warmUpFinished(WarmUp warmUp, Operation op) {
+        if (!warmingUp.remove(warmUp.instance().id(), warmUp) || op.state() != OperationState.FAILED) return;
+        lastWarmedFor.remove(warmUp.instance().id(), warmUp.demandAt());
+        watchService.releaseHold(warmUp.instance(), warmUp.demandAt());
+        log.warn("Prewarm[{}]: réveil échoué, nouvel essai au prochain tick — {}", warmUp.instance().id(), op.error());
+    }
+
+    // Demande la plus proche dont l'heure n'est pas encore passée
+    private Optional<Demand> nextDemand(FleetInstance instance, Instant now) {
+        Demand best = null;
+        ZonedDateTime from = now.atZone(zone);
+        for (CronExpression cron : windows.getOrDefault(instance.id(), List.of())) {
+            ZonedDateTime next = cron.next(from);
+            if (next != null && (best == null || next.toInstant().isBefore(best.at()))) {
+                best = new Demand(next.toInstant(), "window");
+            }
+        }
+        if (properties.learning().enabled()) {
+            Optional<Instant> learned = predictor.next(history.of(instance.id()), now);
+            if (learned.isPresent() && (best == null || learned.get().isBefore(best.at()))) {
+                best = new Demand(learned.get(), "learned");
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private void replace(ScheduledFuture<?> next) {
+        ScheduledFuture<?> previous = tick.getAndSet(next);
+        if (previous != null) previous.cancel(false);
+    }
+}
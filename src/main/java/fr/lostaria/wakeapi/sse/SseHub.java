@@ -0,0 +1,303 @@
+package fr.lostaria.wakeapi.sse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.lostaria.wakeapi.core.FleetInstance;
+import fr.lostaria.wakeapi.core.ThreadFactories;
+import fr.lostaria.wakeapi.payload.InstanceStatusEvent;
+import fr.lostaria.wakeapi.payload.MinecraftStatusEvent;
+import fr.lostaria.wakeapi.services.FleetRegistry;
+import fr.lostaria.wakeapi.services.MinecraftService;
+import fr.lostaria.wakeapi.ws.EventCursor;
+import fr.lostaria.wakeapi.ws.InstanceStatusBroadcaster;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Flux Server-Sent Events alimentés par les événements de {@link InstanceStatusBroadcaster}.
+ * Chaque événement est encodé une seule fois puis partagé par tous les clients du flux ; chaque client a sa
+ * propre file d'envoi, et un client qui accumule plus de {@code sse.maxPendingEvents} trames est déconnecté.
+ */
+@Component
+public class SseHub {
+
+    private static final Logger log = LoggerFactory.getLogger(SseHub.class);
+
+    public enum Stream {
+        INSTANCE("instance-status"),
+        MINECRAFT("minecraft-status");
+
+        private final String eventName;
+
+        Stream(String eventName) {
+            this.eventName = eventName;
+        }
+    }
+
+    private final InstanceStatusBroadcaster broadcaster;
+    private final MinecraftService minecraftService;
+    private final FleetRegistry fleet;
+    private final TaskScheduler scheduler;
+    private final ExecutorService senders;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final int maxConnections;
+    private final int maxPendingEvents;
+    private final long timeoutMs;
+    private final Duration heartbeat;
+    private final Duration minecraftRefresh;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicReference<ScheduledFuture<?>> heartbeatRef = new AtomicReference<>();
+    private final AtomicReference<ScheduledFuture<?>> refreshRef = new AtomicReference<>();
+
+    @Autowired
+    public SseHub(
+            InstanceStatusBroadcaster broadcaster,
+            MinecraftService minecraftService,
+            FleetRegistry fleet,
+            TaskScheduler scheduler,
+            @Value("${sse.maxConnections:1000}") int maxConnections,
+            @Value("${sse.maxPendingEvents:32}") int maxPendingEvents,
+            @Value("${sse.timeoutMs:0}") long timeoutMs,
+            @Value("${sse.heartbeatSeconds:30}") long heartbeatSeconds,
+            @Value("${sse.minecraftRefreshMs:5000}") long minecraftRefreshMs,
+            @Value("${sse.senderThreads:4}") int senderThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this(broadcaster, minecraftService, fleet, scheduler, maxConnections, maxPendingEvents, timeoutMs, heartbeatSeconds,
+                minecraftRefreshMs, ThreadFactories.executor("sse-", virtualThreads, senderThreads));
+    }
+
+    // Exécuteur fourni par les tests pour simuler un client lent
+    SseHub(InstanceStatusBroadcaster broadcaster, MinecraftService minecraftService, FleetRegistry fleet, TaskScheduler scheduler,
+           int maxConnections, int maxPendingEvents, long timeoutMs, long heartbeatSeconds, long minecraftRefreshMs, ExecutorService senders) {
+        this.broadcaster = broadcaster;
+        this.minecraftService = minecraftService;
+        this.fleet = fleet;
+        this.scheduler = scheduler;
+        this.maxConnections = maxConnections;
+        this.maxPendingEvents = maxPendingEvents;
+        this.timeoutMs = timeoutMs;
+        this.heartbeat = Duration.ofSeconds(heartbeatSeconds);
+        this.minecraftRefresh = Duration.ofMillis(minecraftRefreshMs);
+        this.senders = senders;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        replace(heartbeatRef, scheduler.scheduleAtFixedRate(this::heartbeat, heartbeat));
+        replace(refreshRef, scheduler.scheduleWithFixedDelay(this::refreshMinecraft, minecraftRefresh));
+    }
+
+    @PreDestroy
+    public void stop() {
+        replace(heartbeatRef, null);
+        replace(refreshRef, null);
+        clients.forEach(Client::close);
+        senders.shutdownNow();
+    }
+
+    /**
+     * Ouvre un flux pour l'instance ; vide si la limite de connexions est atteinte.
+     * Avec {@code lastEventId} ({@code <epoch>-<seq>}), seuls les événements plus récents sont rejoués, sinon le dernier connu est envoyé.
+     */
+    public Optional<SseEmitter> open(Stream stream, FleetInstance instance, EventCursor lastEventId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            rejected.increment();
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Client client = new Client(stream, instance.id(), emitter);
+        emitter.onCompletion(client::close);
+        emitter.onTimeout(client::close);
+        emitter.onError(e -> client.close());
+
+        // Aucun événement ne peut passer entre le rattrapage et l'inscription
+        broadcaster.withoutBroadcasts(() -> {
+            clients.add(client);
+            List<?> backlog = backlog(stream, instance, lastEventId);
+            if (backlog.isEmpty()) {
+                // Sans première trame, les en-têtes ne partent pas et le client attend jusqu'au heartbeat
+                client.enqueue(-1, SseEmitter.event().comment("open").build());
+            }
+            for (Object event : backlog) {
+                long seq = event instanceof InstanceStatusEvent e ? e.seq() : ((MinecraftStatusEvent) event).seq();
+                client.enqueue(seq, frame(stream, seq, event));
+            }
+        });
+        return Optional.of(emitter);
+    }
+
+    public SseStats stats() {
+        long instanceClients = clients.stream().filter(c -> c.stream == Stream.INSTANCE).count();
+        return new SseStats(connections.get(), maxConnections, instanceClients, connections.get() - instanceClients, rejected.sum(), dropped.sum());
+    }
+
+    @EventListener
+    public void onInstanceStatus(InstanceStatusEvent event) {
+        fanOut(Stream.INSTANCE, event.instanceId(), event.seq(), event);
+    }
+
+    @EventListener
+    public void onMinecraftStatus(MinecraftStatusEvent event) {
+        fanOut(Stream.MINECRAFT, event.instanceId(), event.seq(), event);
+    }
+
+    private List<?> backlog(Stream stream, FleetInstance instance, EventCursor lastEventId) {
+        if (stream == Stream.INSTANCE) {
+            return lastEventId == null
+                    ? broadcaster.lastEvent(instance).map(List::of).orElse(List.of())
+                    : broadcaster.eventsSince(instance, lastEventId);
+        }
+        // Le statut Minecraft est un état : seul le plus récent compte pour resynchroniser
+        return (lastEventId == null ? broadcaster.lastMinecraftEvent(instance) : broadcaster.lastMinecraftEventSince(instance, lastEventId))
+                .map(List::of)
+                .orElse(List.of());
+    }
+
+    // Relayé sous le verrou du broadcaster, donc dans l'ordre des séquences
+    private void fanOut(Stream stream, String instanceId, long seq, Object event) {
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = null;
+        for (Client client : clients) {
+            if (client.stream != stream || !client.instanceId.equals(instanceId)) continue;
+            if (frame == null) {
+                frame = frame(stream, seq, event);
+            }
+            client.enqueue(seq, frame);
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> frame(Stream stream, long seq, Object event) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode SSE event #" + seq, e);
+        }
+        return SseEmitter.event().id(new EventCursor(broadcaster.epoch(), seq).toString()).name(stream.eventName).data(json).build();
+    }
+
+    // Commentaire SSE : garde les proxys ouverts et détecte les connexions mortes
+    private void heartbeat() {
+        if (clients.isEmpty()) return;
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = SseEmitter.event().comment("ping").build();
+        clients.forEach(client -> client.enqueue(-1, frame));
+    }
+
+    // Sans client /events/minecraft, aucun ping n'est déclenché d'ici
+    private void refreshMinecraft() {
+        Set<String> ids = clients.stream()
+                .filter(c -> c.stream == Stream.MINECRAFT)
+                .map(c -> c.instanceId)
+                .collect(Collectors.toSet());
+        for (String id : ids) {
+            fleet.find(id).ifPresent(instance -> senders.execute(() -> {
+                try {
+                    minecraftService.getStatus(instance);
+                } catch (Exception e) {
+                    log.debug("SSE: rafraîchissement Minecraft {} en échec — {}", id, e.getMessage());
+                }
+            }));
+        }
+    }
+
+    private static void replace(AtomicReference<ScheduledFuture<?>> ref, ScheduledFuture<?> next) {
+        ScheduledFuture<?> previous = ref.getAndSet(next);
+        if (previous != null) previous.cancel(false);
+    }
+
+    private final class Client {
+
+        private final Stream stream;
+        private final String instanceId;
+        private final SseEmitter emitter;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private long lastSeq = -1;
+
+        Client(Stream stream, String instanceId, SseEmitter emitter) {
+            this.stream = stream;
+            this.instanceId = instanceId;
+            this.emitter = emitter;
+        }
+
+        // seq < 0 : trame hors séquence (heartbeat)
+        void enqueue(long seq, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+            if (closed.get()) return;
+            if (seq >= 0) {
+                synchronized (this) {
+                    if (seq <= lastSeq) return;
+                    lastSeq = seq;
+                }
+            }
+            if (pending.incrementAndGet() > maxPendingEvents) {
+                dropped.increment();
+                log.debug("SSE: client {} trop lent, déconnexion", instanceId);
+                close();
+                return;
+            }
+            queue.add(frame);
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Set<ResponseBodyEmitter.DataWithMediaType> frame;
+                while ((frame = queue.poll()) != null) {
+                    pending.decrementAndGet();
+                    try {
+                        emitter.send(frame);
+                    } catch (IOException | IllegalStateException e) {
+                        close();
+                        return;
+                    }
+                }
+                draining.set(false);
+                if (queue.isEmpty() || !draining.compareAndSet(false, true)) return;
+            }
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            if (clients.remove(this)) {
+                connections.decrementAndGet();
+            }
+            queue.clear();
+            emitter.complete();
+        }
+    }
+}
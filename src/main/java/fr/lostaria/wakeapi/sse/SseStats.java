@@ -0,0 +1,10 @@
+package fr.lostaria.wakeapi.sse;
+
+public record SseStats(
+        int connections,
+        int maxConnections,
+        long instanceStreams,
+        long minecraftStreams,
+        long rejected,
+        long dropped
+) { }
@@ -0,0 +1,27 @@
+package fr.lostaria.wakeapi.ws;
+
+/**
+ * Position d'un client dans le flux d'événements, au format {@code <epoch>-<seq>}. La séquence repart de 0 à chaque
+ * démarrage : {@code epoch} identifie le démarrage qui a numéroté {@code seq}.
+ */
+public record EventCursor(String epoch, long seq) {
+
+    /** {@code null} si absent ou illisible ; un {@code seq} seul n'a pas d'epoch et ne correspond à aucun démarrage. */
+    public static EventCursor parse(String value) {
+        if (value == null || value.isBlank()) return null;
+        String v = value.trim();
+        int dash = v.lastIndexOf('-');
+        try {
+            return dash < 0
+                    ? new EventCursor(null, Long.parseLong(v))
+                    : new EventCursor(v.substring(0, dash), Long.parseLong(v.substring(dash + 1)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return epoch + "-" + seq;
+    }
+}
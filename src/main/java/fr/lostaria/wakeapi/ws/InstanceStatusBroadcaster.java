@@ -1,22 +1,199 @@
 package fr.lostaria.wakeapi.ws;
 
+import fr.lostaria.wakeapi.core.FleetInstance;
 import fr.lostaria.wakeapi.core.InstanceStatus;
+import fr.lostaria.wakeapi.core.MinecraftStatus;
+import fr.lostaria.wakeapi.core.MinecraftStatusChangedEvent;
+import fr.lostaria.wakeapi.core.cache.Snapshot;
+import fr.lostaria.wakeapi.core.operation.Operation;
+import fr.lostaria.wakeapi.payload.InstanceStatusEvent;
+import fr.lostaria.wakeapi.payload.MinecraftStatusEvent;
+import fr.lostaria.wakeapi.services.FleetRegistry;
+import fr.lostaria.wakeapi.services.MinecraftService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 @Service
 @Slf4j
 public class InstanceStatusBroadcaster {
 
+    static final String DEFAULT_STATUS_TOPIC = "/topic/instance/status";
+
     private final SimpMessagingTemplate messagingTemplate;
+    private final FleetRegistry fleet;
+    private final MinecraftService minecraftService;
+    private final ApplicationEventPublisher events;
+    private final Timer statusFanOut;
+    private final Timer operationFanOut;
+    private final Timer minecraftFanOut;
+    private final int historySize;
 
-    public InstanceStatusBroadcaster(SimpMessagingTemplate messagingTemplate) {
+    private final ConcurrentMap<String, InstanceStatusEvent> lastEvent = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MinecraftStatusEvent> lastMinecraftEvent = new ConcurrentHashMap<>();
+    // Derniers événements, toutes instances confondues, pour la reprise après reconnexion
+    private final Deque<InstanceStatusEvent> history = new ArrayDeque<>();
+    // Identifiant de ce démarrage : un curseur d'un autre epoch vient d'avant un redémarrage
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private long sequence;
+    private long evictedUpTo;
+
+    public InstanceStatusBroadcaster(
+            SimpMessagingTemplate messagingTemplate,
+            FleetRegistry fleet,
+            MinecraftService minecraftService,
+            ApplicationEventPublisher events,
+            MeterRegistry meterRegistry,
+            @Value("${ws.events.historySize:256}") int historySize
+    ) {
         this.messagingTemplate = messagingTemplate;
+        this.fleet = fleet;
+        this.minecraftService = minecraftService;
+        this.events = events;
+        this.statusFanOut = fanOutTimer(meterRegistry, "status");
+        this.operationFanOut = fanOutTimer(meterRegistry, "operation");
+        this.minecraftFanOut = fanOutTimer(meterRegistry, "minecraft");
+        this.historySize = Math.max(1, historySize);
+    }
+
+    private static Timer fanOutTimer(MeterRegistry registry, String type) {
+        return Timer.builder("ws.broadcast")
+                .description("Publication d'un événement vers le broker STOMP, tous topics confondus")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    // Numérotation et envoi sous le même verrou : les clients reçoivent les événements dans l'ordre des séquences
+    public synchronized void broadcast(FleetInstance instance, InstanceStatus status) {
+        send(instance, record(instance, status));
+    }
+
+    public synchronized boolean broadcastIfChanged(FleetInstance instance, InstanceStatus status) {
+        InstanceStatusEvent previous = lastEvent.get(instance.id());
+        if (previous != null && previous.status() == status) {
+            return false;
+        }
+        send(instance, record(instance, status));
+        return true;
+    }
+
+    public Optional<InstanceStatusEvent> lastEvent(FleetInstance instance) {
+        return Optional.ofNullable(lastEvent.get(instance.id()));
+    }
+
+    public Optional<MinecraftStatusEvent> lastMinecraftEvent(FleetInstance instance) {
+        return Optional.ofNullable(lastMinecraftEvent.get(instance.id()));
+    }
+
+    public String epoch() {
+        return epoch;
+    }
+
+    /** Dernier statut Minecraft s'il est postérieur à {@code since}, ou si {@code since} vient d'un autre démarrage. */
+    public Optional<MinecraftStatusEvent> lastMinecraftEventSince(FleetInstance instance, EventCursor since) {
+        MinecraftStatusEvent last = lastMinecraftEvent.get(instance.id());
+        return last != null && (!epoch.equals(since.epoch()) || last.seq() > since.seq()) ? Optional.of(last) : Optional.empty();
+    }
+
+    /** Exécute {@code action} sans qu'aucune diffusion ne puisse s'intercaler, pour un rattrapage suivi d'un abonnement. */
+    public synchronized void withoutBroadcasts(Runnable action) {
+        action.run();
+    }
+
+    @EventListener
+    public synchronized void onMinecraftStatus(MinecraftStatusChangedEvent changed) {
+        FleetInstance instance = changed.instance();
+        MinecraftStatus status = changed.status();
+        MinecraftStatusEvent event = new MinecraftStatusEvent(instance.id(), status.online(), epoch, ++sequence, Instant.now().toString(),
+                status.playersOnline(), status.playersMax());
+        lastMinecraftEvent.put(instance.id(), event);
+        minecraftFanOut.record(() -> messagingTemplate.convertAndSend("/topic/instance/" + instance.id() + "/minecraft", event));
+        events.publishEvent(event);
+    }
+
+    /**
+     * Événements de l'instance postérieurs à {@code since}. Si l'historique ne remonte plus jusque-là,
+     * seul le dernier événement connu est renvoyé : le statut courant suffit à resynchroniser le client.
+     * Un curseur d'un autre démarrage (la séquence repart de 0) reçoit aussi le dernier événement, quel que soit son numéro.
+     */
+    public synchronized List<InstanceStatusEvent> eventsSince(FleetInstance instance, EventCursor since) {
+        if (!epoch.equals(since.epoch())) {
+            return lastEvent(instance).map(List::of).orElse(List.of());
+        }
+        long afterSeq = since.seq();
+        if (afterSeq < evictedUpTo) {
+            InstanceStatusEvent last = lastEvent.get(instance.id());
+            return last != null && last.seq() > afterSeq ? List.of(last) : List.of();
+        }
+        List<InstanceStatusEvent> events = new ArrayList<>();
+        for (InstanceStatusEvent event : history) {
+            if (event.seq() > afterSeq && event.instanceId().equals(instance.id())) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    private InstanceStatusEvent record(FleetInstance instance, InstanceStatus status) {
+        InstanceStatusEvent event = new InstanceStatusEvent(instance.id(), status, epoch, ++sequence, Instant.now().toString(), players(instance, status));
+        lastEvent.put(instance.id(), event);
+        history.addLast(event);
+        if (history.size() > historySize) {
+            evictedUpTo = history.removeFirst().seq();
+        }
+        return event;
+    }
+
+    // Uniquement la valeur déjà en cache : la diffusion ne doit jamais attendre un ping Minecraft
+    private Integer players(FleetInstance instance, InstanceStatus status) {
+        if (!status.isRunning()) {
+            return null;
+        }
+        return minecraftService.getCachedStatus(instance)
+                .map(Snapshot::value)
+                .filter(MinecraftStatus::online)
+                .map(MinecraftStatus::playersOnline)
+                .orElse(null);
+    }
+
+    // Appelé verrou tenu ; le broker et les flux SSE ne font que mettre en file, sans bloquer
+    private void send(FleetInstance instance, InstanceStatusEvent event) {
+        log.info("Broadcasting instance status: {} -> {} (#{})", instance.id(), event.status(), event.seq());
+        statusFanOut.record(() -> {
+            messagingTemplate.convertAndSend(statusTopic(instance), event);
+            if (instance.equals(fleet.defaultInstance())) {
+                // Topic historique, conservé pour les clients mono-instance
+                messagingTemplate.convertAndSend(DEFAULT_STATUS_TOPIC, event);
+            }
+        });
+        // Relais vers les flux SSE, qui partagent la même séquence
+        events.publishEvent(event);
+    }
+
+    static String statusTopic(FleetInstance instance) {
+        return "/topic/instance/" + instance.id() + "/status";
     }
 
-    public void broadcast(InstanceStatus status) {
-        log.info("Broadcasting instance status: {}", status);
-        messagingTemplate.convertAndSend("/topic/instance/status", status.toString());
+    public void broadcastOperation(Operation operation) {
+        operationFanOut.record(() -> {
+            messagingTemplate.convertAndSend("/topic/operations/" + operation.id(), operation);
+            messagingTemplate.convertAndSend("/topic/instance/" + operation.instanceId() + "/operations", operation);
+        });
     }
 }
@@ -0,0 +1,98 @@
+package fr.lostaria.wakeapi.ws;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.lostaria.wakeapi.core.FleetInstance;
+import fr.lostaria.wakeapi.payload.InstanceStatusEvent;
+import fr.lostaria.wakeapi.services.FleetRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * À l'abonnement à un topic de statut, envoie directement à la session le dernier événement connu,
+ * ou ceux postérieurs au header STOMP {@code since} ({@code <epoch>-<seq>} du dernier événement vu avant la reconnexion).
+ * Le client n'a ainsi plus besoin d'appeler /instance/status, donc OVH, pour s'initialiser.
+ */
+@Component
+@Slf4j
+public class StatusSubscriptionListener {
+
+    private static final String INSTANCE_TOPIC_PREFIX = "/topic/instance/";
+    private static final String STATUS_TOPIC_SUFFIX = "/status";
+
+    private final InstanceStatusBroadcaster broadcaster;
+    private final FleetRegistry fleet;
+    private final MessageChannel clientOutboundChannel;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public StatusSubscriptionListener(
+            InstanceStatusBroadcaster broadcaster,
+            FleetRegistry fleet,
+            @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel
+    ) {
+        this.broadcaster = broadcaster;
+        this.fleet = fleet;
+        this.clientOutboundChannel = clientOutboundChannel;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        Optional<FleetInstance> instance = statusInstance(destination);
+        if (instance.isEmpty()) {
+            return;
+        }
+
+        EventCursor since = EventCursor.parse(accessor.getFirstNativeHeader("since"));
+        List<InstanceStatusEvent> events = since == null
+                ? broadcaster.lastEvent(instance.get()).map(List::of).orElse(List.of())
+                : broadcaster.eventsSince(instance.get(), since);
+        for (InstanceStatusEvent e : events) {
+            send(accessor.getSessionId(), accessor.getSubscriptionId(), destination, e);
+        }
+    }
+
+    private Optional<FleetInstance> statusInstance(String destination) {
+        if (destination == null) {
+            return Optional.empty();
+        }
+        if (destination.equals(InstanceStatusBroadcaster.DEFAULT_STATUS_TOPIC)) {
+            return Optional.of(fleet.defaultInstance());
+        }
+        if (destination.startsWith(INSTANCE_TOPIC_PREFIX) && destination.endsWith(STATUS_TOPIC_SUFFIX)) {
+            String id = destination.substring(INSTANCE_TOPIC_PREFIX.length(), destination.length() - STATUS_TOPIC_SUFFIX.length());
+            return fleet.find(id);
+        }
+        return Optional.empty();
+    }
+
+    private void send(String sessionId, String subscriptionId, String destination, InstanceStatusEvent event) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            log.warn("Cannot encode status event #{}: {}", event.seq(), e.getMessage());
+            return;
+        }
+        // Message adressé à cette seule session, sans passer par le broker
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setSubscriptionId(subscriptionId);
+        headers.setDestination(destination);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setLeaveMutable(true);
+        clientOutboundChannel.send(MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+    }
+}
@@ -1,20 +1,29 @@
 package fr.lostaria.wakeapi.ws;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import fr.lostaria.wakeapi.core.auth.BearerTokenService;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
@@ -24,17 +33,94 @@ import java.util.Base64;
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final UserDetailsService userDetailsService;
+    private final PasswordEncoder passwordEncoder;
+    private final BearerTokenService bearerTokens;
 
-    public WebSocketConfig(UserDetailsService userDetailsService) {
+    private final int messageSizeLimit;
+    private final int sendBufferSizeLimit;
+    private final int sendTimeLimitMs;
+    private final int outboundCorePoolSize;
+    private final int outboundMaxPoolSize;
+    private final int outboundQueueCapacity;
+
+    private final boolean relayEnabled;
+    private final String relayHost;
+    private final int relayPort;
+    private final String relayLogin;
+    private final String relayPasscode;
+    private final String relayVirtualHost;
+
+    public WebSocketConfig(
+            UserDetailsService userDetailsService,
+            PasswordEncoder passwordEncoder,
+            BearerTokenService bearerTokens,
+            @Value("${ws.transport.messageSizeLimit:16384}") int messageSizeLimit,
+            @Value("${ws.transport.sendBufferSizeLimit:262144}") int sendBufferSizeLimit,
+            @Value("${ws.transport.sendTimeLimitMs:5000}") int sendTimeLimitMs,
+            @Value("${ws.outbound.corePoolSize:4}") int outboundCorePoolSize,
+            @Value("${ws.outbound.maxPoolSize:16}") int outboundMaxPoolSize,
+            @Value("${ws.outbound.queueCapacity:10000}") int outboundQueueCapacity,
+            @Value("${ws.broker.relay.enabled:false}") boolean relayEnabled,
+            @Value("${ws.broker.relay.host:localhost}") String relayHost,
+            @Value("${ws.broker.relay.port:61613}") int relayPort,
+            @Value("${ws.broker.relay.login:guest}") String relayLogin,
+            @Value("${ws.broker.relay.passcode:guest}") String relayPasscode,
+            @Value("${ws.broker.relay.virtualHost:}") String relayVirtualHost
+    ) {
         this.userDetailsService = userDetailsService;
+        this.passwordEncoder = passwordEncoder;
+        this.bearerTokens = bearerTokens;
+        this.messageSizeLimit = messageSizeLimit;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.outboundCorePoolSize = outboundCorePoolSize;
+        this.outboundMaxPoolSize = outboundMaxPoolSize;
+        this.outboundQueueCapacity = outboundQueueCapacity;
+        this.relayEnabled = relayEnabled;
+        this.relayHost = relayHost;
+        this.relayPort = relayPort;
+        this.relayLogin = relayLogin;
+        this.relayPasscode = relayPasscode;
+        this.relayVirtualHost = relayVirtualHost;
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        if (relayEnabled) {
+            // Broker externe (RabbitMQ, ActiveMQ…) : plusieurs nœuds WakeAPI partagent les mêmes topics
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            config.enableSimpleBroker("/topic");
+        }
         config.setApplicationDestinationPrefixes("/app");
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Au-delà du tampon ou du délai d'envoi, la session lente est fermée au lieu de retenir la diffusion
+        registration
+                .setMessageSizeLimit(messageSizeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
@@ -49,24 +135,45 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
             public Message<?> preSend(Message<?> message, MessageChannel channel) {
                 StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
                 if (StompCommand.CONNECT.equals(accessor.getCommand())) {
-                    String authHeader = accessor.getFirstNativeHeader("Authorization");
-                    if (authHeader != null && authHeader.startsWith("Basic ")) {
-                        String base64Credentials = authHeader.substring("Basic ".length());
-                        String credentials = new String(Base64.getDecoder().decode(base64Credentials), StandardCharsets.UTF_8);
-                        String[] values = credentials.split(":", 2);
-                        String username = values[0];
-                        String password = values[1];
-
-                        var userDetails = userDetailsService.loadUserByUsername(username);
-                        var authentication = new UsernamePasswordAuthenticationToken(userDetails, password, userDetails.getAuthorities());
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                        accessor.setUser(authentication);
-                    } else {
-                        throw new IllegalArgumentException("Missing or invalid Authorization header");
-                    }
+                    Authentication authentication = authenticate(accessor.getFirstNativeHeader("Authorization"));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    accessor.setUser(authentication);
                 }
                 return message;
             }
         });
     }
+
+    private Authentication authenticate(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return bearerTokens.verify(authHeader.substring("Bearer ".length()).trim())
+                    .orElseThrow(() -> new BadCredentialsException("Invalid or expired token"));
+        }
+        if (authHeader == null || !authHeader.startsWith("Basic ")) {
+            throw new IllegalArgumentException("Missing or invalid Authorization header");
+        }
+
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(authHeader.substring("Basic ".length())), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadCredentialsException("Malformed Basic credentials");
+        }
+        String[] values = credentials.split(":", 2);
+        if (values.length != 2) {
+            throw new BadCredentialsException("Malformed Basic credentials");
+        }
+
+        UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(values[0]);
+        } catch (UsernameNotFoundException e) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        // Le mot de passe n'était jusqu'ici jamais vérifié au CONNECT
+        if (!passwordEncoder.matches(values[1], userDetails.getPassword())) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(userDetails, null, userDetails.getAuthorities());
+    }
 }
@@ -0,0 +1,58 @@
+package fr.lostaria.wakeapi.config;
+
+import fr.lostaria.wakeapi.core.auth.BearerTokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BearerTokenFilterTest {
+
+    private final BearerTokenService tokens = new BearerTokenService("secret", 900);
+    private final BearerTokenFilter filter = new BearerTokenFilter(tokens);
+    private final String token = tokens.issue(UsernamePasswordAuthenticationToken.authenticated(
+            "widget", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN"))).token();
+
+    @AfterEach
+    void clear() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void headerTokenAuthenticatesAnyPath() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/instance/status");
+        request.addHeader("Authorization", "Bearer " + token);
+
+        assertEquals("widget", filter(request).getName());
+    }
+
+    @Test
+    void queryTokenAuthenticatesEventStreams() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/events/instance");
+        request.setParameter("access_token", token);
+
+        assertEquals("widget", filter(request).getName());
+    }
+
+    @Test
+    void queryTokenIsIgnoredOutsideEventStreams() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/instance/start");
+        request.setParameter("access_token", token);
+
+        assertNull(filter(request));
+    }
+
+    private Authentication filter(MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,72 @@
+package fr.lostaria.wakeapi.controllers;
+
+import fr.lostaria.wakeapi.config.FleetProperties;
+import fr.lostaria.wakeapi.core.InstanceStatus;
+import fr.lostaria.wakeapi.payload.APIResponseCache;
+import fr.lostaria.wakeapi.services.FleetRegistry;
+import fr.lostaria.wakeapi.services.InstanceOperationService;
+import fr.lostaria.wakeapi.services.OvhApiService;
+import fr.lostaria.wakeapi.services.PrewarmService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** If-None-Match sur les réponses pré-encodées : 304 sans corps tant que le contenu ne change pas. */
+class ConditionalGetTest {
+
+    private final FleetRegistry fleet = new FleetRegistry(new FleetProperties(null), "i-1", "127.0.0.1", 25565);
+    private final OvhApiService ovhApiService = mock(OvhApiService.class);
+    private final APIResponseCache responses = new APIResponseCache();
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(
+            new PublicController(responses),
+            new InstanceController(ovhApiService, fleet, mock(InstanceOperationService.class), responses, mock(PrewarmService.class))
+    ).build();
+
+    @Test
+    void publicPingAnswers304ToItsOwnETag() throws Exception {
+        String etag = etag(mvc.perform(get("/public/ping")).andExpect(status().isOk()).andReturn().getResponse());
+
+        MockHttpServletResponse revalidated = mvc.perform(get("/public/ping").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse();
+
+        assertEquals(0, revalidated.getContentAsByteArray().length);
+        assertEquals(etag, revalidated.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void instanceStatusAnswers304UntilTheStatusChanges() throws Exception {
+        when(ovhApiService.getInstanceStatus(fleet.defaultInstance())).thenReturn(InstanceStatus.ACTIVE);
+        String etag = etag(mvc.perform(get("/instance/status")).andExpect(status().isOk()).andReturn().getResponse());
+
+        MockHttpServletResponse revalidated = mvc.perform(get("/instance/status").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse();
+        assertEquals(0, revalidated.getContentAsByteArray().length);
+
+        when(ovhApiService.getInstanceStatus(fleet.defaultInstance())).thenReturn(InstanceStatus.SHELVED_OFFLOADED);
+        MockHttpServletResponse changed = mvc.perform(get("/instance/status").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertTrue(changed.getContentAsString().contains("SHELVED_OFFLOADED"), changed.getContentAsString());
+        assertNotEquals(etag, etag(changed));
+    }
+
+    private static String etag(MockHttpServletResponse response) {
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+}
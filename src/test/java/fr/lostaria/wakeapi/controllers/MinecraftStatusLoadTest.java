@@ -0,0 +1,219 @@
+package fr.lostaria.wakeapi.controllers;
+
+import fr.lostaria.wakeapi.WakeApiApplication;
+import fr.lostaria.wakeapi.core.FleetInstance;
+import fr.lostaria.wakeapi.core.MinecraftStatus;
+import fr.lostaria.wakeapi.core.cache.Snapshot;
+import fr.lostaria.wakeapi.core.slp.SlpClient;
+import fr.lostaria.wakeapi.services.FleetRegistry;
+import fr.lostaria.wakeapi.services.MinecraftService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 1000 requêtes /minecraft/status simultanées, en threads plateforme puis en threads virtuels.
+ * Le faux serveur Minecraft répond en {@link #SLP_DELAY_MS} ms et le cache coalescent est contourné : chaque requête
+ * lance son propre ping et bloque son thread jusqu'à la réponse. Lancement : {@code mvn test -Dloadtest=true -Dtest=MinecraftStatusLoadTest}
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class MinecraftStatusLoadTest {
+
+    private static final int CONCURRENCY = 1_000;
+    private static final int SLP_DELAY_MS = 100;
+
+    private ServerSocket slpServer;
+    private ExecutorService slpExecutor;
+    private final AtomicInteger pings = new AtomicInteger();
+
+    @BeforeEach
+    void startFakeMinecraft() throws IOException {
+        slpServer = new ServerSocket(0, 1_000, InetAddress.getLoopbackAddress());
+        slpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        slpExecutor.submit(() -> {
+            while (!slpServer.isClosed()) {
+                try {
+                    Socket socket = slpServer.accept();
+                    slpExecutor.submit(() -> serve(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    @AfterEach
+    void stopFakeMinecraft() throws IOException {
+        slpServer.close();
+        slpExecutor.shutdownNow();
+    }
+
+    @Test
+    void statusThroughputPlatformVersusVirtualThreads() throws Exception {
+        double platform = run(false);
+        double virtual = run(true);
+        System.out.printf("/minecraft/status x%d : plateforme = %.0f req/s, virtuels = %.0f req/s%n", CONCURRENCY, platform, virtual);
+    }
+
+    private double run(boolean virtualThreads) throws Exception {
+        pings.set(0);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WakeApiApplication.class, LoadTestOverrides.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.allow-bean-definition-overriding=true",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.security.user.name=load",
+                        "spring.security.user.password=load",
+                        "spring.security.user.roles=ADMIN",
+                        "ovh.applicationKey=x", "ovh.applicationSecret=x", "ovh.consumerKey=x",
+                        "ovh.apiEndpoint=http://127.0.0.1:9", "ovh.serviceId=x", "ovh.instanceId=x",
+                        "instance.poller.enabled=false",
+                        "minecraft.host=127.0.0.1",
+                        "minecraft.port=" + slpServer.getLocalPort(),
+                        "ssh.username=x", "ssh.privateKeyPath=/dev/null")
+                .run()) {
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/minecraft/status"))
+                    .header("Authorization", "Basic " + Base64.getEncoder().encodeToString("load:load".getBytes(StandardCharsets.UTF_8)))
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+
+            // Préchauffage
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+
+            CountDownLatch go = new CountDownLatch(1);
+            List<CompletableFuture<Integer>> responses = new ArrayList<>();
+            try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < CONCURRENCY; i++) {
+                    responses.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            go.await();
+                            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            return -1;
+                        }
+                    }, callers));
+                }
+                long t0 = System.nanoTime();
+                go.countDown();
+                long ok = responses.stream().map(CompletableFuture::join).filter(code -> code == 200).count();
+                double seconds = (System.nanoTime() - t0) / 1e9;
+
+                assertEquals(CONCURRENCY, ok);
+                // Un ping par requête, préchauffage compris : aucune requête n'a profité de celui d'une autre
+                assertEquals(CONCURRENCY + 1, pings.get());
+                return CONCURRENCY / seconds;
+            }
+        }
+    }
+
+    @Configuration
+    static class LoadTestOverrides {
+
+        // BCrypt coûte autant dans les deux modes et masquerait l'attente I/O mesurée ici
+        @Bean
+        @SuppressWarnings("deprecation")
+        public PasswordEncoder passwordEncoder() {
+            return NoOpPasswordEncoder.getInstance();
+        }
+
+        // Le cache regrouperait les requêtes simultanées sur un seul ping : on mesurerait l'attente d'un ping partagé
+        @Bean
+        public MinecraftService minecraftService(SlpClient slpClient, FleetRegistry fleet, MeterRegistry meterRegistry, ApplicationEventPublisher events) {
+            return new MinecraftService(slpClient, fleet, meterRegistry, events, 0, 0) {
+                @Override
+                public Snapshot<MinecraftStatus> getStatusSnapshot(FleetInstance instance) {
+                    return new Snapshot<>(getStatus(instance, 5_000), 0);
+                }
+            };
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(socket.getInputStream());
+             DataOutputStream out = new DataOutputStream(socket.getOutputStream())) {
+            // Handshake : longueur, id, protocole, hôte, port, état suivant
+            readVarInt(in);
+            readVarInt(in);
+            readVarInt(in);
+            in.readFully(new byte[readVarInt(in)]);
+            in.readUnsignedShort();
+            readVarInt(in);
+            // Status request : longueur, id
+            readVarInt(in);
+            readVarInt(in);
+            pings.incrementAndGet();
+            Thread.sleep(SLP_DELAY_MS);
+
+            byte[] json = "{\"players\":{\"online\":1,\"max\":20},\"description\":\"load\"}".getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream packet = new ByteArrayOutputStream();
+            DataOutputStream p = new DataOutputStream(packet);
+            writeVarInt(p, 0x00);
+            writeVarInt(p, json.length);
+            p.write(json);
+
+            writeVarInt(out, packet.size());
+            out.write(packet.toByteArray());
+            out.flush();
+        } catch (IOException | InterruptedException ignored) {
+        }
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int numRead = 0;
+        int result = 0;
+        byte read;
+        do {
+            read = in.readByte();
+            result |= (read & 0x7F) << (7 * numRead);
+            numRead++;
+        } while ((read & 0x80) != 0);
+        return result;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & -128) != 0) {
+            out.writeByte(value & 127 | 128);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
@@ -0,0 +1,147 @@
+package fr.lostaria.wakeapi.core;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import fr.lostaria.wakeapi.core.exception.OvhApiException;
+import fr.lostaria.wakeapi.core.exception.OvhApiExceptionCause;
+import fr.lostaria.wakeapi.core.http.JdkHttpTransport;
+import fr.lostaria.wakeapi.core.resilience.CircuitBreaker;
+import fr.lostaria.wakeapi.core.resilience.OvhResilience;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OvhApiTest {
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private JdkHttpTransport transport;
+    private OvhResilience resilience;
+    private final AtomicInteger hits = new AtomicInteger();
+
+    @BeforeEach
+    void startStub() throws IOException {
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50);
+        server.setExecutor(executor);
+        server.createContext("/instances", exchange -> reply(exchange, 200, instances(3)));
+        server.createContext("/huge", exchange -> reply(exchange, 200, instances(5_000)));
+        server.createContext("/broken", exchange -> reply(exchange, 200, "[{\"id\":\"a\","));
+        server.start();
+        transport = new JdkHttpTransport(1_000, 2_000, false);
+        resilience = new OvhResilience(3, 1, 10, 5, 30_000, 8, 500);
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void decodesTypedResponseStraightFromStream() throws Exception {
+        List<?> instances = api().get("/instances", List.class);
+
+        assertEquals(3, instances.size());
+        assertEquals("i-1", ((Map<?, ?>) instances.get(1)).get("id"));
+    }
+
+    @Test
+    void exposesStreamingParserForLargeLists() throws Exception {
+        List<String> ids = api().get("/instances", parser -> {
+            List<String> out = new ArrayList<>();
+            while (parser.nextToken() != null) {
+                if (parser.currentToken() == JsonToken.FIELD_NAME && "id".equals(parser.currentName())) {
+                    parser.nextToken();
+                    out.add(parser.getText());
+                }
+            }
+            return out;
+        });
+
+        assertEquals(List.of("i-0", "i-1", "i-2"), ids);
+    }
+
+    @Test
+    void rejectsBodiesAboveLimitWithoutRetrying() {
+        OvhApiException e = assertThrows(OvhApiException.class, () -> api().get("/huge", List.class));
+
+        assertEquals(OvhApiExceptionCause.API_ERROR, e.getOvhCause());
+        assertEquals(1, hits.get());
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.stats().circuitState());
+    }
+
+    @Test
+    void reportsTruncatedJsonAsApiError() {
+        OvhApiException e = assertThrows(OvhApiException.class, () -> api().get("/broken", List.class));
+
+        assertEquals(OvhApiExceptionCause.API_ERROR, e.getOvhCause());
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void keepsTextVariantForUntypedCalls() throws Exception {
+        assertEquals(instances(3), api().get("/instances", false));
+    }
+
+    @Test
+    void metricsUseBoundedPathTemplates() {
+        assertEquals("/cloud/project/{id}/instance/{id}/unshelve",
+                OvhApi.pathTemplate("/cloud/project/0a1b2c3d4e5f60718293a4b5c6d7e8f9/instance/5d2f6c1e-1b2a-4c3d-9e8f-7a6b5c4d3e2f/unshelve"));
+        assertEquals("/cloud/project/{id}/instance", OvhApi.pathTemplate("/cloud/project/abcdefabcdefabcdef/instance?region=GRA11"));
+        assertEquals("/auth/time", OvhApi.pathTemplate("/auth/time"));
+    }
+
+    private OvhApi api() {
+        String endpoint = "http://127.0.0.1:" + server.getAddress().getPort();
+        OvhTimeSync timeSync = new OvhTimeSync(transport, endpoint, 30) {
+            @Override
+            public long now() {
+                return System.currentTimeMillis() / 1000;
+            }
+        };
+        return new OvhApi("ak", "as", "ck", endpoint, MAX_BODY_BYTES, transport, new OvhSigner(), timeSync, resilience, new SimpleMeterRegistry());
+    }
+
+    private static String instances(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"id\":\"i-").append(i).append("\",\"name\":\"node-").append(i)
+                    .append("\",\"status\":\"ACTIVE\",\"ipAddresses\":[{\"ip\":\"10.0.0.").append(i % 250).append("\"}]}");
+        }
+        return json.append(']').toString();
+    }
+
+    private void reply(HttpExchange exchange, int status, String body) throws IOException {
+        hits.incrementAndGet();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        // Réponse en chunked : la limite doit être appliquée pendant la lecture, pas seulement sur Content-Length
+        exchange.sendResponseHeaders(status, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        } catch (IOException ignored) {
+            // Le client a fermé le flux avant la fin
+        }
+        exchange.close();
+    }
+}
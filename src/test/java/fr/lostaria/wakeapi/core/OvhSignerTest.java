@@ -0,0 +1,46 @@
+package fr.lostaria.wakeapi.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OvhSignerTest {
+
+    private final OvhSigner signer = new OvhSigner();
+
+    @Test
+    void matchesReferenceSignatureForAsciiRequest() throws Exception {
+        String url = "https://eu.api.ovh.com/1.0/cloud/project/abc/instance/def/unshelve";
+        assertEquals(
+                expected("AS+CK+POST+" + url + "++1760000000"),
+                signer.sign("AS", "CK", "POST", url, "", 1_760_000_000L));
+    }
+
+    @Test
+    void hashesUtf8BytesOfNonLatin1Body() throws Exception {
+        // Hors Latin-1 et hors BMP : l'ancienne implémentation tronquait ou remplaçait ces caractères
+        String body = "{\"name\":\"Château 城堡 🏰\",\"bad\":\"\uD800\"}";
+        assertEquals(
+                expected("AS+CK+PUT+https://x/y+" + body + "+42"),
+                signer.sign("AS", "CK", "PUT", "https://x/y", body, 42));
+    }
+
+    @Test
+    void streamsFieldsLargerThanInternalBuffer() throws Exception {
+        String body = "é".repeat(5_000);
+        assertEquals(
+                expected("AS+CK+POST+https://x/y+" + body + "+7"),
+                signer.sign("AS", "CK", "POST", "https://x/y", body, 7));
+        // Le contexte réutilisé repart bien de zéro
+        assertEquals(expected("AS+CK+GET+https://x/y++7"), signer.sign("AS", "CK", "GET", "https://x/y", null, 7));
+    }
+
+    private static String expected(String toSign) throws Exception {
+        byte[] hash = MessageDigest.getInstance("SHA-1").digest(toSign.getBytes(StandardCharsets.UTF_8));
+        return "$1$" + HexFormat.of().formatHex(hash);
+    }
+}
@@ -0,0 +1,73 @@
+package fr.lostaria.wakeapi.core;
+
+import fr.lostaria.wakeapi.core.http.OvhHttpResponse;
+import fr.lostaria.wakeapi.core.http.OvhHttpTransport;
+import fr.lostaria.wakeapi.core.http.TransportStats;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OvhTimeSyncTest {
+
+    private volatile long serverSkewSeconds = 120;
+    private volatile boolean down;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final OvhHttpTransport transport = new OvhHttpTransport() {
+        @Override
+        public OvhHttpResponse execute(String method, String url, Map<String, String> headers, String body) throws IOException {
+            calls.incrementAndGet();
+            if (down) throw new IOException("connection refused");
+            assertEquals("https://eu.api.ovh.com/1.0/auth/time", url);
+            return new OvhHttpResponse(200, Long.toString(System.currentTimeMillis() / 1000 + serverSkewSeconds));
+        }
+
+        @Override
+        public TransportStats stats() {
+            return null;
+        }
+    };
+
+    @Test
+    void correctsTimestampsWithCachedOffset() {
+        OvhTimeSync sync = new OvhTimeSync(transport, "ovh-eu", 30);
+
+        long skew = sync.now() - System.currentTimeMillis() / 1000;
+        assertTrue(Math.abs(skew - 120) <= 1, "skew=" + skew);
+        sync.now();
+        sync.now();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void resyncReportsWhetherOffsetChanged() {
+        OvhTimeSync sync = new OvhTimeSync(transport, "ovh-eu", 30);
+        sync.now();
+
+        assertFalse(sync.resync());
+        serverSkewSeconds = -300;
+        assertTrue(sync.resync());
+        assertTrue(Math.abs(sync.offsetSeconds() + 300) <= 1);
+    }
+
+    @Test
+    void keepsLastOffsetWhileOvhIsUnreachable() {
+        OvhTimeSync sync = new OvhTimeSync(transport, "ovh-eu", 0);
+        sync.now();
+        long offset = sync.offsetSeconds();
+
+        down = true;
+        int before = calls.get();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(Math.abs(sync.now() - System.currentTimeMillis() / 1000 - offset) <= 1);
+        }
+        // Une seule tentative, puis pause avant de réessayer
+        assertEquals(before + 1, calls.get());
+    }
+}
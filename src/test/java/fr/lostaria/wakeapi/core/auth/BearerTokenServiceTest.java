@@ -0,0 +1,63 @@
+package fr.lostaria.wakeapi.core.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BearerTokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private final Authentication admin = UsernamePasswordAuthenticationToken.authenticated(
+            "admin", null, AuthorityUtils.commaSeparatedStringToAuthorityList("ROLE_ADMIN,ROLE_OPS"));
+
+    @Test
+    void issuedTokenAuthenticatesWithSameNameAndRoles() {
+        BearerTokenService tokens = service("secret", NOW);
+
+        BearerTokenService.IssuedToken issued = tokens.issue(admin);
+        Authentication verified = tokens.verify(issued.token()).orElseThrow();
+
+        assertEquals("admin", verified.getName());
+        assertEquals(List.of("ROLE_ADMIN", "ROLE_OPS"), verified.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertEquals(NOW.plus(Duration.ofMinutes(15)), issued.expiresAt());
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        String token = service("secret", NOW).issue(admin).token();
+
+        assertTrue(service("secret", NOW.plus(Duration.ofMinutes(14))).verify(token).isPresent());
+        assertEquals(Optional.empty(), service("secret", NOW.plus(Duration.ofMinutes(15))).verify(token));
+    }
+
+    @Test
+    void rejectsTamperedOrForeignTokens() {
+        BearerTokenService tokens = service("secret", NOW);
+        String token = tokens.issue(admin).token();
+        String payload = token.substring(0, token.indexOf('.'));
+        String signature = token.substring(token.indexOf('.') + 1);
+
+        assertEquals(Optional.empty(), tokens.verify(payload.substring(1) + "." + signature));
+        assertEquals(Optional.empty(), tokens.verify(payload + "." + signature.substring(1)));
+        assertEquals(Optional.empty(), service("other-secret", NOW).verify(token));
+        assertEquals(Optional.empty(), tokens.verify("not-a-token"));
+        assertEquals(Optional.empty(), tokens.verify("%%%.%%%"));
+    }
+
+    private static BearerTokenService service(String secret, Instant now) {
+        return new BearerTokenService(secret, Duration.ofMinutes(15), Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,69 @@
+package fr.lostaria.wakeapi.core.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingPasswordEncoderTest {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    // Simule un encodeur coûteux en comptant les vérifications complètes
+    private final PasswordEncoder slow = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "{hash}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            verifications.incrementAndGet();
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    @Test
+    void verifiesCorrectPasswordOnlyOnce() {
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(slow, 8, Duration.ofMinutes(5));
+        String hash = encoder.encode("s3cret");
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(encoder.matches("s3cret", hash));
+        }
+        assertEquals(1, verifications.get());
+        assertEquals(9, encoder.hits());
+    }
+
+    @Test
+    void neverCachesFailedAttempts() {
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(slow, 8, Duration.ofMinutes(5));
+        String hash = encoder.encode("s3cret");
+
+        assertTrue(encoder.matches("s3cret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(3, verifications.get());
+    }
+
+    @Test
+    void staysBoundedAndExpires() {
+        CachingPasswordEncoder bounded = new CachingPasswordEncoder(slow, 2, Duration.ofMinutes(5));
+        for (String password : new String[] {"a", "b", "c", "a"}) {
+            assertTrue(bounded.matches(password, slow.encode(password)));
+        }
+        // "a" a été évincé par "c" : deuxième vérification complète
+        assertEquals(4, verifications.get());
+
+        verifications.set(0);
+        CachingPasswordEncoder expiring = new CachingPasswordEncoder(slow, 8, Duration.ZERO);
+        assertTrue(expiring.matches("a", slow.encode("a")));
+        assertTrue(expiring.matches("a", slow.encode("a")));
+        assertEquals(2, verifications.get());
+    }
+}
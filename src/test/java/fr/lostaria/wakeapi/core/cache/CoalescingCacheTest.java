@@ -0,0 +1,106 @@
+package fr.lostaria.wakeapi.core.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CoalescingCacheTest {
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CoalescingCache<String, IOException> cache = new CoalescingCache<>(Duration.ofMinutes(1), () -> {
+            loads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "ACTIVE";
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(cache::get));
+        }
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<String> f : results) {
+            assertEquals("ACTIVE", f.get(5, TimeUnit.SECONDS));
+        }
+        pool.shutdownNow();
+
+        assertEquals(1, loads.get());
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.misses());
+        assertEquals(7, stats.coalesced() + stats.hits());
+    }
+
+    @Test
+    void invalidateForcesReload() throws IOException {
+        AtomicInteger loads = new AtomicInteger();
+        CoalescingCache<Integer, IOException> cache = new CoalescingCache<>(Duration.ofMinutes(1), loads::incrementAndGet);
+
+        assertEquals(1, cache.get());
+        assertEquals(1, cache.get());
+        cache.invalidate();
+        assertEquals(2, cache.get());
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    void loaderFailureIsRethrownAndNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        CoalescingCache<Integer, IOException> cache = new CoalescingCache<>(Duration.ofMinutes(1), () -> {
+            loads.incrementAndGet();
+            throw new IOException("upstream down");
+        });
+
+        assertThrows(IOException.class, cache::get);
+        assertThrows(IOException.class, cache::get);
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.stats().failures());
+    }
+
+    @Test
+    void servesStaleValueWhileRefreshingInBackground() throws InterruptedException {
+        ConcurrentLinkedQueue<CompletableFuture<Integer>> pending = new ConcurrentLinkedQueue<>();
+        CoalescingCache<Integer, RuntimeException> cache = CoalescingCache.async(Duration.ofMillis(50), Duration.ofMinutes(1), () -> {
+            CompletableFuture<Integer> f = new CompletableFuture<>();
+            pending.add(f);
+            return f;
+        });
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(cache::get);
+        while (pending.isEmpty()) Thread.sleep(5);
+        pending.poll().complete(1);
+        assertEquals(1, first.join());
+
+        Thread.sleep(100);
+        Snapshot<Integer> stale = cache.getSnapshot();
+        assertEquals(1, stale.value());
+        assertEquals(1, cache.getSnapshot().value());
+        assertEquals(1, pending.size());
+
+        pending.poll().complete(2);
+        assertEquals(2, cache.get());
+        assertEquals(2, cache.stats().misses());
+        assertEquals(2, cache.stats().staleHits());
+    }
+}
@@ -0,0 +1,140 @@
+package fr.lostaria.wakeapi.core.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JdkHttpTransportTest {
+
+    private ServerSocket server;
+    private ExecutorService executor;
+    private final AtomicInteger acceptedConnections = new AtomicInteger();
+    private volatile byte[] body = "{\"status\":\"ACTIVE\"}".getBytes(StandardCharsets.UTF_8);
+    // Fin du corps envoyée après une pause : elle n'est pas encore reçue quand l'appelant ferme le flux
+    private volatile byte[] tail = new byte[0];
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor = Executors.newCachedThreadPool();
+        executor.submit(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    acceptedConnections.incrementAndGet();
+                    executor.submit(() -> serve(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    @AfterEach
+    void stopStub() throws IOException {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void reusesConnectionAcrossCalls() throws IOException {
+        JdkHttpTransport transport = new JdkHttpTransport(2_000, 2_000, false);
+        String url = "http://127.0.0.1:" + server.getLocalPort() + "/cloud/project/x/instance/y";
+
+        for (int i = 0; i < 10; i++) {
+            OvhHttpResponse response = transport.execute("GET", url, Map.of("X-Ovh-Application", "app"), "");
+            assertEquals(200, response.status());
+            assertEquals("{\"status\":\"ACTIVE\"}", response.body());
+        }
+
+        assertEquals(1, acceptedConnections.get());
+        TransportStats stats = transport.stats();
+        assertEquals(10, stats.requests());
+        assertEquals(0, stats.failures());
+        assertEquals(0, stats.inFlight());
+    }
+
+    @Test
+    void streamClosedBeforeEndOfBodyKeepsConnection() throws IOException {
+        // Jackson s'arrête à la fin de la valeur racine : le saut de ligne final reste à lire
+        tail = "\n".getBytes(StandardCharsets.UTF_8);
+        JdkHttpTransport transport = new JdkHttpTransport(2_000, 2_000, false);
+        String url = "http://127.0.0.1:" + server.getLocalPort() + "/cloud/project/x/instance/y";
+
+        for (int i = 0; i < 5; i++) {
+            try (OvhHttpStream stream = transport.open("GET", url, Map.of(), "")) {
+                assertEquals('{', stream.body(1_024).read());
+            }
+        }
+
+        assertEquals(1, acceptedConnections.get());
+        assertEquals(0, transport.stats().inFlight());
+    }
+
+    @Test
+    void oversizedBodyIsAbandoned() throws IOException {
+        body = new byte[64 * 1024];
+        JdkHttpTransport transport = new JdkHttpTransport(2_000, 2_000, false);
+        String url = "http://127.0.0.1:" + server.getLocalPort() + "/cloud/project/x/instance/y";
+
+        try (OvhHttpStream stream = transport.open("GET", url, Map.of(), "")) {
+            assertThrows(ResponseTooLargeException.class, () -> stream.body(1_024));
+        }
+        body = "{}".getBytes(StandardCharsets.UTF_8);
+        assertEquals("{}", transport.execute("GET", url, Map.of(), "").body());
+
+        assertEquals(2, acceptedConnections.get());
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+             OutputStream out = socket.getOutputStream()) {
+            String requestLine;
+            while ((requestLine = in.readLine()) != null) {
+                if (requestLine.isEmpty()) continue;
+                int contentLength = 0;
+                String header;
+                while ((header = in.readLine()) != null && !header.isEmpty()) {
+                    if (header.toLowerCase(Locale.ROOT).startsWith("content-length:")) {
+                        contentLength = Integer.parseInt(header.substring("content-length:".length()).trim());
+                    }
+                }
+                in.skip(contentLength);
+                byte[] payload = body;
+                byte[] end = tail;
+                out.write(("HTTP/1.1 200 OK\r\n"
+                        + "Content-Type: application/json\r\n"
+                        + "Content-Length: " + (payload.length + end.length) + "\r\n"
+                        + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                out.write(payload);
+                out.flush();
+                if (end.length > 0) {
+                    Thread.sleep(100);
+                    out.write(end);
+                    out.flush();
+                }
+            }
+        } catch (IOException ignored) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
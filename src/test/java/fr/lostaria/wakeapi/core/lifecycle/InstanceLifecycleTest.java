@@ -0,0 +1,81 @@
+package fr.lostaria.wakeapi.core.lifecycle;
+
+import fr.lostaria.wakeapi.core.InstanceStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InstanceLifecycleTest {
+
+    @Test
+    void concurrentStartsCoalesceOntoOneTransition() throws Exception {
+        InstanceLifecycle lifecycle = new InstanceLifecycle();
+        lifecycle.observe(InstanceStatus.SHELVED_OFFLOADED);
+        AtomicInteger unshelves = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(10);
+        List<Future<LifecycleOutcome>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(pool.submit(() -> lifecycle.request(InstanceLifecycle.Action.START, () -> {
+                unshelves.incrementAndGet();
+                release.await(5, TimeUnit.SECONDS);
+                return LifecycleOutcome.STARTING;
+            }).join()));
+        }
+        Thread.sleep(200);
+        assertEquals(LifecyclePhase.WAKE_REQUESTED, lifecycle.phase());
+        release.countDown();
+        for (Future<LifecycleOutcome> f : results) {
+            assertEquals(LifecycleOutcome.STARTING, f.get(5, TimeUnit.SECONDS));
+        }
+        pool.shutdownNow();
+
+        assertEquals(1, unshelves.get());
+        assertEquals(LifecyclePhase.UNSHELVING, lifecycle.phase());
+    }
+
+    @Test
+    void oppositeRequestIsRejectedWhileBusy() throws Exception {
+        InstanceLifecycle lifecycle = new InstanceLifecycle();
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<LifecycleOutcome> start = CompletableFuture.supplyAsync(() ->
+                lifecycle.request(InstanceLifecycle.Action.START, () -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return LifecycleOutcome.STARTING;
+                }).join());
+        while (!lifecycle.isBusy()) Thread.sleep(5);
+
+        LifecycleOutcome stop = lifecycle.request(InstanceLifecycle.Action.STOP, () -> LifecycleOutcome.STOPPING).join();
+        assertEquals(LifecycleOutcome.TRANSITION_IN_PROGRESS, stop);
+
+        release.countDown();
+        assertEquals(LifecycleOutcome.STARTING, start.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failureRestoresPreviousPhase() {
+        InstanceLifecycle lifecycle = new InstanceLifecycle();
+        lifecycle.observe(InstanceStatus.SHELVED_OFFLOADED);
+
+        CompletableFuture<LifecycleOutcome> op = lifecycle.request(InstanceLifecycle.Action.START, () -> {
+            throw new IOException("OVH down");
+        });
+        assertThrows(Exception.class, op::join);
+        assertEquals(LifecyclePhase.SHELVED, lifecycle.phase());
+        assertFalse(lifecycle.isBusy());
+    }
+}
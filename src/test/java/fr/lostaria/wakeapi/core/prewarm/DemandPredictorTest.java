@@ -0,0 +1,61 @@
+package fr.lostaria.wakeapi.core.prewarm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DemandPredictorTest {
+
+    // Samedi
+    private static final Instant NOW = Instant.parse("2026-05-02T12:00:00Z");
+    private final DemandPredictor predictor = new DemandPredictor(ZoneOffset.UTC, 4, 2, Duration.ofMinutes(15));
+
+    @Test
+    void recurringSlotPredictsNextOccurrence() {
+        // Vendredis 21:03 et 21:10 : même créneau de 15 min sur deux semaines
+        List<Instant> starts = List.of(Instant.parse("2026-04-24T21:03:00Z"), Instant.parse("2026-04-17T21:10:00Z"));
+
+        assertEquals(Optional.of(Instant.parse("2026-05-08T21:00:00Z")), predictor.next(starts, NOW));
+    }
+
+    @Test
+    void singleWeekIsNotEnough() {
+        // Deux démarrages la même semaine ne font pas une habitude
+        List<Instant> starts = List.of(Instant.parse("2026-04-24T21:03:00Z"), Instant.parse("2026-04-24T21:12:00Z"));
+
+        assertTrue(predictor.next(starts, NOW).isEmpty());
+    }
+
+    @Test
+    void startsOutsideLearningWindowAreIgnored() {
+        List<Instant> starts = List.of(Instant.parse("2026-03-27T21:03:00Z"), Instant.parse("2026-03-20T21:03:00Z"));
+
+        assertTrue(predictor.next(starts, NOW).isEmpty());
+    }
+
+    @Test
+    void earliestUpcomingSlotWins() {
+        List<Instant> starts = List.of(
+                Instant.parse("2026-04-25T18:00:00Z"), Instant.parse("2026-04-18T18:05:00Z"),
+                Instant.parse("2026-04-24T21:03:00Z"), Instant.parse("2026-04-17T21:10:00Z"));
+
+        assertEquals(Optional.of(Instant.parse("2026-05-02T18:00:00Z")), predictor.next(starts, NOW));
+    }
+
+    @Test
+    void slotAfterDaylightSavingChangeKeepsLocalTime() {
+        // Dimanches 21:03 à Paris (UTC+1) ; le dimanche 29 mars 2026 à 2 h, Paris passe à UTC+2
+        DemandPredictor paris = new DemandPredictor(ZoneId.of("Europe/Paris"), 4, 2, Duration.ofMinutes(15));
+        List<Instant> starts = List.of(Instant.parse("2026-03-15T20:03:00Z"), Instant.parse("2026-03-22T20:03:00Z"));
+
+        assertEquals(Optional.of(Instant.parse("2026-03-29T19:00:00Z")), paris.next(starts, Instant.parse("2026-03-28T12:00:00Z")));
+    }
+}
@@ -0,0 +1,64 @@
+package fr.lostaria.wakeapi.core.prewarm;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StartHistoryTest {
+
+    private static final Duration RETENTION = Duration.ofDays(28);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void startsAreReloadedFromFile() {
+        Path file = dir.resolve("starts.csv");
+        Instant first = Instant.now().minus(Duration.ofDays(7));
+        Instant second = Instant.now().minus(Duration.ofHours(1));
+        StartHistory history = new StartHistory(file, RETENTION);
+        history.record("i-1", first);
+        history.record("i-1", second);
+        history.record("i-2", second);
+
+        StartHistory reloaded = new StartHistory(file, RETENTION);
+
+        assertEquals(List.of(first, second), reloaded.of("i-1"));
+        assertEquals(List.of(second), reloaded.of("i-2"));
+    }
+
+    @Test
+    void loadCompactsExpiredAndMalformedLines() throws Exception {
+        Path file = dir.resolve("starts.csv");
+        Instant recent = Instant.now().minus(Duration.ofDays(1));
+        Files.write(file, List.of(
+                "i-1," + Instant.now().minus(Duration.ofDays(60)),
+                "garbage",
+                "i-1,not-a-date",
+                "i-1," + recent), StandardCharsets.UTF_8);
+
+        StartHistory history = new StartHistory(file, RETENTION);
+
+        assertEquals(List.of(recent), history.of("i-1"));
+        assertEquals(List.of("i-1," + recent), Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void withoutFileHistoryStaysInMemory() {
+        StartHistory history = new StartHistory(null, RETENTION);
+        Instant at = Instant.now();
+        history.record("i-1", at);
+
+        assertEquals(List.of(at), history.of("i-1"));
+        assertTrue(history.of("i-2").isEmpty());
+    }
+}
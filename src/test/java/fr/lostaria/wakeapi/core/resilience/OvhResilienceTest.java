@@ -0,0 +1,215 @@
+package fr.lostaria.wakeapi.core.resilience;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import fr.lostaria.wakeapi.core.OvhApi;
+import fr.lostaria.wakeapi.core.OvhSigner;
+import fr.lostaria.wakeapi.core.OvhTimeSync;
+import fr.lostaria.wakeapi.core.exception.OvhApiException;
+import fr.lostaria.wakeapi.core.exception.OvhApiExceptionCause;
+import fr.lostaria.wakeapi.core.http.JdkHttpTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OvhResilienceTest {
+
+    /** Comportement du stub pour une requête : délai puis code HTTP. */
+    private record Fault(long delayMs, int status) { }
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private JdkHttpTransport transport;
+    private final ConcurrentLinkedQueue<Fault> faults = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger hits = new AtomicInteger();
+
+    @BeforeEach
+    void startStub() throws IOException {
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50);
+        server.setExecutor(executor);
+        server.createContext("/", this::serve);
+        server.start();
+        transport = new JdkHttpTransport(1_000, 300, false);
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void retriesIdempotentGetOnServerErrors() throws Exception {
+        faults.add(new Fault(0, 503));
+        faults.add(new Fault(0, 502));
+        OvhResilience resilience = resilience(3, 5, 1);
+
+        assertEquals("ok", api(resilience).get("/instance", false));
+        assertEquals(3, hits.get());
+        assertEquals(2, resilience.stats().retries());
+    }
+
+    @Test
+    void retriesGetAfterUpstreamTimeout() throws Exception {
+        faults.add(new Fault(1_000, 200));
+        OvhResilience resilience = resilience(2, 5, 1);
+
+        assertEquals("ok", api(resilience).get("/instance", false));
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    void doesNotRetryNonIdempotentCalls() {
+        faults.add(new Fault(0, 503));
+        OvhResilience resilience = resilience(3, 5, 1);
+
+        OvhApiException e = assertThrows(OvhApiException.class, () -> api(resilience).post("/instance/start", "", false));
+        assertEquals(OvhApiExceptionCause.API_ERROR, e.getOvhCause());
+        assertEquals(1, hits.get());
+        assertEquals(1, resilience.stats().errors().get(OvhApiExceptionCause.API_ERROR));
+    }
+
+    @Test
+    void clientErrorsAreNotRetriedAndDoNotTripTheBreaker() {
+        for (int i = 0; i < 3; i++) faults.add(new Fault(0, 404));
+        OvhResilience resilience = resilience(3, 2, 1);
+        OvhApi api = api(resilience);
+
+        for (int i = 0; i < 3; i++) {
+            OvhApiException e = assertThrows(OvhApiException.class, () -> api.get("/missing", false));
+            assertEquals(OvhApiExceptionCause.RESSOURCE_NOT_FOUND, e.getOvhCause());
+        }
+        assertEquals(3, hits.get());
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.stats().circuitState());
+        assertEquals(3, resilience.stats().errors().get(OvhApiExceptionCause.RESSOURCE_NOT_FOUND));
+    }
+
+    @Test
+    void openCircuitFailsFastThenRecoversThroughProbe() throws Exception {
+        for (int i = 0; i < 3; i++) faults.add(new Fault(0, 500));
+        OvhResilience resilience = new OvhResilience(1, 1, 1, 3, 200, 8, 100);
+        OvhApi api = api(resilience);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(OvhApiException.class, () -> api.post("/instance/start", "", false));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, resilience.stats().circuitState());
+
+        long t0 = System.nanoTime();
+        OvhApiException e = assertThrows(OvhApiException.class, () -> api.get("/instance", false));
+        assertEquals(OvhApiExceptionCause.SERVICE_UNAVAILABLE, e.getOvhCause());
+        assertTrue((System.nanoTime() - t0) / 1_000_000 < 100, "should fail fast");
+        assertEquals(3, hits.get());
+
+        Thread.sleep(250);
+        assertEquals("ok", api.get("/instance", false));
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.stats().circuitState());
+        assertEquals(1, resilience.stats().circuitOpens());
+        assertEquals(1, resilience.stats().errors().get(OvhApiExceptionCause.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    void runtimeExceptionDuringProbeReleasesIt() throws Exception {
+        OvhResilience resilience = new OvhResilience(1, 1, 1, 1, 100, 8, 100);
+        assertThrows(IOException.class, () -> resilience.execute("GET", "/instance", () -> {
+            throw new IOException("down");
+        }));
+        assertEquals(CircuitBreaker.State.OPEN, resilience.stats().circuitState());
+
+        Thread.sleep(150);
+        assertThrows(IllegalStateException.class, () -> resilience.execute("GET", "/instance", () -> {
+            throw new IllegalStateException("bug");
+        }));
+        assertEquals(CircuitBreaker.State.OPEN, resilience.stats().circuitState());
+
+        // Sans libération, le disjoncteur resterait bloqué sur l'appel de test précédent
+        Thread.sleep(150);
+        assertEquals("ok", api(resilience).get("/instance", false));
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.stats().circuitState());
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondConcurrencyLimit() throws Exception {
+        for (int i = 0; i < 6; i++) faults.add(new Fault(250, 200));
+        OvhResilience resilience = new OvhResilience(1, 1, 1, 5, 1_000, 2, 20);
+        OvhApi api = api(resilience);
+
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            results.add(callers.submit(() -> {
+                go.await();
+                return api.get("/instance", false);
+            }));
+        }
+        go.countDown();
+
+        int ok = 0;
+        int rejected = 0;
+        for (Future<String> f : results) {
+            try {
+                f.get();
+                ok++;
+            } catch (Exception e) {
+                OvhApiException cause = (OvhApiException) e.getCause();
+                assertEquals(OvhApiExceptionCause.SERVICE_UNAVAILABLE, cause.getOvhCause());
+                rejected++;
+            }
+        }
+        callers.shutdownNow();
+
+        assertEquals(2, ok);
+        assertEquals(4, rejected);
+        assertEquals(4, resilience.stats().bulkheadRejected());
+        assertEquals(0, resilience.stats().bulkheadInFlight());
+    }
+
+    private OvhResilience resilience(int maxAttempts, int failureThreshold, long baseDelayMs) {
+        return new OvhResilience(maxAttempts, baseDelayMs, 10, failureThreshold, 30_000, 8, 500);
+    }
+
+    private OvhApi api(OvhResilience resilience) {
+        String endpoint = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new OvhApi("ak", "as", "ck", endpoint, 1_048_576, transport, new OvhSigner(), new OvhTimeSync(transport, endpoint, 30), resilience, new SimpleMeterRegistry());
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        hits.incrementAndGet();
+        Fault fault = faults.poll();
+        int status = fault == null ? 200 : fault.status();
+        try {
+            if (fault != null && fault.delayMs() > 0) Thread.sleep(fault.delayMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = (status == 200 ? "ok" : "{\"message\":\"stub " + status + "\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        } catch (IOException ignored) {
+            // Le client a abandonné (timeout) : rien à faire
+        }
+        exchange.close();
+    }
+}
@@ -0,0 +1,133 @@
+package fr.lostaria.wakeapi.core.shelve;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveShelvePolicyTest {
+
+    private static final Instant START = Instant.parse("2026-05-02T14:00:00Z");
+
+    private static AdaptiveShelvePolicy policy(List<ShelveSchedule> schedules) {
+        return new AdaptiveShelvePolicy(new AdaptiveShelvePolicy.Settings(
+                Duration.ofMinutes(10), Duration.ofMinutes(20), 3, Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofMinutes(10),
+                ZoneOffset.UTC, schedules));
+    }
+
+    @Test
+    void briefReconnectDoesNotShelve() {
+        ShelvePolicy.Tracker tracker = policy(List.of()).start(START);
+
+        assertFalse(tracker.onSample(START.plusSeconds(60), 2).shelve());
+        // Quatre échantillons vides, mais la grâce de 10 min depuis le dernier joueur n'est pas écoulée
+        for (int m = 2; m <= 5; m++) {
+            assertFalse(tracker.onSample(START.plusSeconds(60L * m), 0).shelve());
+        }
+        assertFalse(tracker.onSample(START.plusSeconds(360), 1).shelve());
+        assertFalse(tracker.onSample(START.plusSeconds(420), 0).shelve());
+    }
+
+    @Test
+    void shelvesAfterGraceAndConsecutiveEmptySamples() {
+        ShelvePolicy.Tracker tracker = policy(List.of()).start(START);
+
+        // Minecraft a démarré, puis s'est arrêté : la grâce court depuis le premier ping réussi
+        assertFalse(tracker.onSample(START.plusSeconds(60), 0).shelve());
+        ShelveDecision last = null;
+        for (int m = 2; m <= 11; m++) {
+            last = tracker.onSample(START.plusSeconds(60L * m), ShelvePolicy.MINECRAFT_OFFLINE);
+            if (m < 11) assertFalse(last.shelve());
+        }
+        assertTrue(last.shelve());
+        assertEquals("shelve_minecraft_offline", last.reason());
+    }
+
+    @Test
+    void slowBootIsNotShelved() {
+        ShelvePolicy.Tracker tracker = policy(List.of()).start(START);
+
+        // 15 min d'unshelve et de démarrage de Minecraft
+        for (int m = 1; m <= 15; m++) {
+            ShelveDecision d = tracker.onSample(START.plusSeconds(60L * m), ShelvePolicy.MINECRAFT_OFFLINE);
+            assertFalse(d.shelve());
+            assertEquals("recheck_booting", d.reason());
+        }
+        // En ligne mais vide : les joueurs ont encore toute la grâce pour arriver
+        for (int m = 16; m <= 25; m++) {
+            assertFalse(tracker.onSample(START.plusSeconds(60L * m), 0).shelve());
+        }
+        assertTrue(tracker.onSample(START.plusSeconds(60L * 26), 0).shelve());
+    }
+
+    @Test
+    void serverThatNeverBootsIsShelvedAfterBootGrace() {
+        ShelvePolicy.Tracker tracker = policy(List.of()).start(START);
+
+        for (int m = 1; m < 20; m++) {
+            assertFalse(tracker.onSample(START.plusSeconds(60L * m), ShelvePolicy.MINECRAFT_OFFLINE).shelve());
+        }
+        assertTrue(tracker.onSample(START.plusSeconds(60L * 20), ShelvePolicy.MINECRAFT_OFFLINE).shelve());
+    }
+
+    @Test
+    void simulatorSlowBootTraceIsNotShelvedPrematurely() {
+        ShelveSimulator.Trace slowBoot = ShelveSimulator.parseCsv("slow-boot", List.of(
+                "2026-05-02T14:00:00Z,offline",
+                "2026-05-02T14:14:00Z,0",
+                "2026-05-02T14:21:00Z,2",
+                "2026-05-02T14:50:00Z,2"));
+
+        ShelveSimulator.Result adaptive = ShelveSimulator.simulate(policy(List.of()), slowBoot);
+
+        assertFalse(adaptive.shelved());
+        assertFalse(adaptive.premature());
+    }
+
+    @Test
+    void samplesMoreOftenAsPlayersLeave() {
+        AdaptiveShelvePolicy p = policy(List.of());
+
+        assertEquals(Duration.ofMinutes(10), p.interval(25));
+        assertEquals(Duration.ofMinutes(3), p.interval(3));
+        assertEquals(Duration.ofMinutes(1), p.interval(0));
+    }
+
+    @Test
+    void scheduleOverridesGraceAcrossMidnight() {
+        ShelveSchedule night = new ShelveSchedule(LocalTime.of(22, 0), LocalTime.of(2, 0), Duration.ofMinutes(30), 5);
+        ShelvePolicy.Tracker tracker = policy(List.of(night)).start(Instant.parse("2026-05-02T23:00:00Z"));
+
+        assertTrue(night.contains(LocalTime.of(0, 30)));
+        assertFalse(night.contains(LocalTime.of(12, 0)));
+        assertFalse(tracker.onSample(Instant.parse("2026-05-02T23:00:00Z"), 0).shelve());
+        for (int m = 1; m < 30; m++) {
+            assertFalse(tracker.onSample(Instant.parse("2026-05-02T23:00:00Z").plusSeconds(60L * m), 0).shelve());
+        }
+        assertTrue(tracker.onSample(Instant.parse("2026-05-02T23:30:00Z"), 0).shelve());
+    }
+
+    @Test
+    void simulatorReportsSavedHoursAgainstFixedPolicy() {
+        ShelveSimulator.Trace empty = ShelveSimulator.parseCsv("empty", List.of(
+                "# serveur démarré pour rien",
+                "2026-05-02T14:00:00Z,offline",
+                "2026-05-02T14:03:00Z,0",
+                "2026-05-02T15:00:00Z,0"));
+
+        ShelveSimulator.Result fixed = ShelveSimulator.simulate(FixedShelvePolicy.legacy(), empty);
+        ShelveSimulator.Result adaptive = ShelveSimulator.simulate(policy(List.of()), empty);
+
+        assertEquals(Duration.ofMinutes(20), fixed.uptime());
+        // Minecraft répond à 14:03 : 10 min de grâce à partir de là
+        assertEquals(Duration.ofMinutes(13), adaptive.uptime());
+        assertFalse(adaptive.premature());
+    }
+}
@@ -0,0 +1,153 @@
+package fr.lostaria.wakeapi.core.slp;
+
+import fr.lostaria.wakeapi.core.MinecraftStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlpClientTest {
+
+    private ServerSocket server;
+    private ExecutorService executor;
+    private SlpClient client;
+    private final AtomicInteger handshakes = new AtomicInteger();
+    private final AtomicReference<String> handshakeHost = new AtomicReference<>();
+    private volatile String responseJson = "{\"version\":{\"name\":\"1.21.4\",\"protocol\":769},"
+            + "\"players\":{\"max\":20,\"online\":3,\"sample\":[{\"name\":\"Steve\",\"id\":\"069a79f4-44e9-4726-a5be-fca90e38aaf5\"}]},"
+            + "\"description\":{\"text\":\"Lostaria \",\"extra\":[{\"text\":\"Dev\",\"color\":\"gold\"}]}}";
+
+    @BeforeEach
+    void startFakeServer() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor = Executors.newCachedThreadPool();
+        executor.submit(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    executor.submit(() -> serve(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+        client = new SlpClient();
+    }
+
+    @AfterEach
+    void stopFakeServer() throws IOException {
+        client.shutdown();
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void readsPlayerCountWithSingleHandshake() throws Exception {
+        MinecraftStatus status = client.ping("127.0.0.1", server.getLocalPort(), Duration.ofSeconds(2)).get(5, TimeUnit.SECONDS);
+
+        assertTrue(status.online());
+        assertEquals(3, status.playersOnline());
+        assertEquals(20, status.playersMax());
+        assertEquals("1.21.4", status.versionName());
+        assertEquals(769, status.protocol());
+        assertEquals("Steve", status.sample().get(0).name());
+        assertEquals("Lostaria Dev", status.motd());
+        assertTrue(status.latencyMs() >= 0);
+        assertEquals(1, handshakes.get());
+        assertEquals("127.0.0.1", handshakeHost.get());
+    }
+
+    @Test
+    void handlesResponsesLargerThanPooledBuffer() throws Exception {
+        responseJson = "{\"favicon\":\"data:image/png;base64," + "A".repeat(100_000) + "\","
+                + "\"modinfo\":{\"type\":\"FML\",\"modList\":[]},\"description\":\"Hello\",\"players\":{\"online\":7}}";
+
+        for (int i = 0; i < 3; i++) {
+            MinecraftStatus status = client.ping("127.0.0.1", server.getLocalPort(), Duration.ofSeconds(2)).get(5, TimeUnit.SECONDS);
+            assertEquals(7, status.playersOnline());
+            assertEquals("Hello", status.motd());
+        }
+    }
+
+    @Test
+    void failsWhenNothingListens() throws IOException {
+        int port;
+        try (ServerSocket closed = new ServerSocket(0)) {
+            port = closed.getLocalPort();
+        }
+        CompletableFuture<MinecraftStatus> future = client.ping("127.0.0.1", port, Duration.ofSeconds(2));
+        assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertFalse(future.isCancelled());
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(socket.getInputStream());
+             DataOutputStream out = new DataOutputStream(socket.getOutputStream())) {
+            readVarInt(in);
+            if (readVarInt(in) != 0x00) return;
+            readVarInt(in);
+            byte[] host = new byte[readVarInt(in)];
+            in.readFully(host);
+            in.readUnsignedShort();
+            if (readVarInt(in) != SlpCodec.STATUS_NEXT_STATE) return;
+            handshakes.incrementAndGet();
+            handshakeHost.set(new String(host, StandardCharsets.UTF_8));
+
+            if (readVarInt(in) != 1 || readVarInt(in) != 0x00) return;
+
+            byte[] json = responseJson.getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream packet = new ByteArrayOutputStream();
+            DataOutputStream p = new DataOutputStream(packet);
+            writeVarInt(p, 0x00);
+            writeVarInt(p, json.length);
+            p.write(json);
+
+            writeVarInt(out, packet.size());
+            out.write(packet.toByteArray());
+            out.flush();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int numRead = 0;
+        int result = 0;
+        byte read;
+        do {
+            read = in.readByte();
+            result |= (read & 0x7F) << (7 * numRead);
+            numRead++;
+        } while ((read & 0x80) != 0);
+        return result;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & -128) != 0) {
+            out.writeByte(value & 127 | 128);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
@@ -0,0 +1,44 @@
+package fr.lostaria.wakeapi.core.slp;
+
+import fr.lostaria.wakeapi.core.MinecraftStatus;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SlpStatusParserTest {
+
+    @Test
+    void readsPlayersVersionAndMotd() throws Exception {
+        MinecraftStatus status = parse("""
+                {"version":{"name":"1.21.1","protocol":767},
+                 "players":{"max":50,"online":2,"sample":[{"name":"Alex","id":"a-1"},{"name":"Steve","id":"s-1"}]},
+                 "description":{"text":"Lostaria ","extra":[{"text":"ouvert"}]}}""");
+
+        assertEquals(2, status.playersOnline());
+        assertEquals(50, status.playersMax());
+        assertEquals(List.of(new MinecraftStatus.PlayerSample("Alex", "a-1"), new MinecraftStatus.PlayerSample("Steve", "s-1")), status.sample());
+        assertEquals("1.21.1", status.versionName());
+        assertEquals("Lostaria ouvert", status.motd());
+    }
+
+    @Test
+    void nonObjectSampleEntriesAreSkipped() throws Exception {
+        // Les champs qui suivent "sample" doivent encore être lus correctement
+        MinecraftStatus status = parse("""
+                {"players":{"sample":["x",{"name":"Alex","id":"a-1"},[1,2],{"name":"Steve","id":"s-1"}],"max":50,"online":2},
+                 "version":{"name":"1.21.1","protocol":767}}""");
+
+        assertEquals(2, status.playersOnline());
+        assertEquals(50, status.playersMax());
+        assertEquals(List.of(new MinecraftStatus.PlayerSample("Alex", "a-1"), new MinecraftStatus.PlayerSample("Steve", "s-1")), status.sample());
+        assertEquals("1.21.1", status.versionName());
+    }
+
+    private static MinecraftStatus parse(String json) throws Exception {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return SlpStatusParser.parse(bytes, 0, bytes.length, 5);
+    }
+}
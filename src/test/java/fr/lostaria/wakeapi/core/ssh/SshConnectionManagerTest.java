@@ -0,0 +1,165 @@
+package fr.lostaria.wakeapi.core.ssh;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.schmizz.sshj.common.IOUtils;
+import net.schmizz.sshj.connection.channel.direct.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SshConnectionManagerTest {
+
+    @TempDir
+    Path dir;
+
+    private EmbeddedSshServer server;
+    private SshConnectionManager manager;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = new EmbeddedSshServer(dir);
+        manager = server.manager(900);
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        manager.close();
+        server.close();
+    }
+
+    @Test
+    void handshakeDoesNotBlockStatsOrEviction() throws Exception {
+        // Hôte qui accepte la connexion TCP sans jamais envoyer sa bannière SSH : la poignée de main reste en attente
+        try (ServerSocket silent = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            SshConnectionManager stuck = new SshConnectionManager("127.0.0.1", silent.getLocalPort(), "wake",
+                    dir.resolve("missing").toString(), 1_000, 30, 0, new SimpleMeterRegistry());
+            ExecutorService caller = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> connecting = caller.submit(() -> stuck.withSession(session -> null));
+                Socket accepted = silent.accept();
+
+                assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+                    assertFalse(stuck.stats().connected());
+                    stuck.evictIfIdle();
+                    stuck.close();
+                });
+
+                accepted.close();
+                ExecutionException e = assertThrows(ExecutionException.class, () -> connecting.get(10, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof IOException, e.toString());
+            } finally {
+                caller.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void reusesOneTransportAcrossExecs() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals("run " + i, exec("echo run " + i));
+        }
+
+        SshPoolStats stats = manager.stats();
+        assertEquals(1, stats.connects());
+        assertEquals(5, stats.sessionsOpened());
+        assertEquals(1, server.sessionsCreated());
+    }
+
+    @Test
+    void multiplexesConcurrentSessionsOnOneTransport() throws Exception {
+        exec("true");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                String command = "sleep 0.5; echo " + i;
+                results.add(pool.submit(() -> exec(command)));
+            }
+            long t0 = System.nanoTime();
+            for (int i = 0; i < 4; i++) {
+                assertEquals(Integer.toString(i), results.get(i).get(10, TimeUnit.SECONDS));
+            }
+            // Quatre canaux ouverts ensemble : pas d'exécution à la file
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0) < 1_500);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, manager.stats().connects());
+        assertEquals(1, server.sessionsCreated());
+    }
+
+    @Test
+    void reconnectsAfterServerDropsConnection() throws Exception {
+        assertEquals("before", exec("echo before"));
+
+        server.dropConnections();
+        Thread.sleep(200);
+
+        assertEquals("after", exec("echo after"));
+        assertEquals(2, manager.stats().connects());
+        assertEquals(2, server.sessionsCreated());
+    }
+
+    @Test
+    void evictsIdleConnection() throws Exception {
+        SshConnectionManager idle = server.manager(0);
+        try {
+            idle.withSession(session -> exec(session, "true"));
+            assertTrue(idle.stats().connected());
+
+            idle.evictIfIdle();
+
+            SshPoolStats evicted = idle.stats();
+            assertFalse(evicted.connected());
+            assertEquals(1, evicted.evictions());
+
+            assertEquals("again", idle.withSession(session -> exec(session, "echo again")));
+            assertEquals(2, idle.stats().connects());
+        } finally {
+            idle.close();
+        }
+    }
+
+    @Test
+    void keepsRecentlyUsedConnection() throws Exception {
+        exec("true");
+        manager.evictIfIdle();
+
+        assertTrue(manager.stats().connected());
+        assertEquals(0, manager.stats().evictions());
+    }
+
+    private String exec(String command) throws Exception {
+        return manager.withSession(session -> exec(session, command));
+    }
+
+    private static String exec(Session session, String command) throws IOException {
+        Session.Command cmd = session.exec(command);
+        String out = IOUtils.readFully(cmd.getInputStream()).toString(StandardCharsets.UTF_8).strip();
+        cmd.join(5, TimeUnit.SECONDS);
+        return out;
+    }
+}
@@ -0,0 +1,136 @@
+package fr.lostaria.wakeapi.core.ssh;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SshPlanRunnerTest {
+
+    @TempDir
+    Path dir;
+
+    private EmbeddedSshServer server;
+    private SshConnectionManager connections;
+    private SshPlanRunner runner;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = new EmbeddedSshServer(dir);
+        connections = server.manager(900);
+        runner = new SshPlanRunner(new SimpleMeterRegistry(), false);
+        // Connexion établie hors des mesures de durée
+        runner.run(connections, SshPlan.sequential("true"));
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        runner.shutdown();
+        connections.close();
+        server.close();
+    }
+
+    @Test
+    void parallelStageTakesAboutTheSlowestStep() {
+        SshPlan plan = SshPlan.builder()
+                .step("sleep 0.3")
+                .step("sleep 0.6")
+                .step("sleep 1")
+                .build();
+
+        SshPlanResult result = runner.run(connections, plan);
+
+        assertTrue(result.success());
+        assertEquals(3, result.steps().size());
+        assertTrue(result.durationMs() >= 1_000, "durée " + result.durationMs());
+        assertTrue(result.durationMs() < 1_800, "durée " + result.durationMs());
+    }
+
+    @Test
+    void failedStageSkipsFollowingStages() {
+        SshPlan plan = SshPlan.builder()
+                .step("exit 3")
+                .then().step("echo never")
+                .build();
+
+        SshPlanResult result = runner.run(connections, plan);
+
+        assertFalse(result.success());
+        assertEquals(3, result.firstFailure().orElseThrow().exitStatus());
+        assertTrue(result.steps().get(1).skipped());
+    }
+
+    @Test
+    void batchedPlanStopsAtFirstFailure() {
+        SshPlan plan = SshPlan.builder()
+                .batched()
+                .step("echo one")
+                .then().step("false")
+                .then().step("echo three")
+                .build();
+
+        SshPlanResult result = runner.run(connections, plan);
+
+        assertFalse(result.success());
+        SshStepResult batch = result.steps().get(0);
+        assertEquals(1, batch.exitStatus());
+        assertEquals("one", batch.stdout());
+    }
+
+    @Test
+    void outputLinesReachListener() {
+        List<String> lines = new CopyOnWriteArrayList<>();
+        SshPlan plan = SshPlan.builder()
+                .onOutput((step, stream, line) -> lines.add(step + ":" + stream + ":" + line))
+                .step("echo out; echo err 1>&2")
+                .build();
+
+        SshPlanResult result = runner.run(connections, plan);
+
+        assertTrue(result.success());
+        assertEquals("out", result.steps().get(0).stdout());
+        assertEquals("err", result.steps().get(0).stderr());
+        assertTrue(lines.contains("0:STDOUT:out"), lines.toString());
+        assertTrue(lines.contains("0:STDERR:err"), lines.toString());
+    }
+
+    @Test
+    void slowCommandTimesOut() {
+        SshPlan plan = SshPlan.builder().step("sleep 5", Duration.ofMillis(300)).build();
+
+        SshStepResult step = runner.run(connections, plan).steps().get(0);
+
+        assertFalse(step.success());
+        assertTrue(step.timedOut());
+    }
+
+    @Test
+    void droppedConnectionIsAFailureNotATimeout() throws Exception {
+        Thread dropper = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                return;
+            }
+            server.dropConnections();
+        });
+        SshPlan plan = SshPlan.builder().step("sleep 5", Duration.ofSeconds(30)).build();
+
+        SshStepResult step = runner.run(connections, plan).steps().get(0);
+        dropper.join();
+
+        assertFalse(step.success());
+        assertFalse(step.timedOut(), step.error());
+        assertTrue(step.durationMs() < 5_000, "durée " + step.durationMs());
+    }
+}
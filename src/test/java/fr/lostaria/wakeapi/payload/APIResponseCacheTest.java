@@ -0,0 +1,38 @@
+package fr.lostaria.wakeapi.payload;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class APIResponseCacheTest {
+
+    @Test
+    void encodesOnceAndMatchesJackson() throws Exception {
+        APIResponseCache cache = new APIResponseCache();
+
+        APIResponseCache.Encoded first = cache.get(true, "INSTANCE_STATUS", "ACTIVE");
+        APIResponseCache.Encoded second = cache.get(true, "INSTANCE_STATUS", "ACTIVE");
+
+        assertSame(first, second);
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        assertArrayEquals(new ObjectMapper().writeValueAsBytes(new APIResponse(true, "INSTANCE_STATUS", "ACTIVE")), first.body());
+        assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("\""));
+    }
+
+    @Test
+    void etagChangesWithContent() {
+        APIResponseCache cache = new APIResponseCache();
+
+        String active = cache.get(true, "INSTANCE_STATUS", "ACTIVE").etag();
+        String shelved = cache.get(true, "INSTANCE_STATUS", "SHELVED").etag();
+
+        assertNotEquals(active, shelved);
+        assertEquals(active, new APIResponseCache().get(true, "INSTANCE_STATUS", "ACTIVE").etag());
+    }
+}
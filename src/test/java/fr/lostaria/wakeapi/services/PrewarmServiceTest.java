@@ -0,0 +1,112 @@
+package fr.lostaria.wakeapi.services;
+
+import fr.lostaria.wakeapi.config.FleetProperties;
+import fr.lostaria.wakeapi.config.PrewarmProperties;
+import fr.lostaria.wakeapi.core.FleetInstance;
+import fr.lostaria.wakeapi.core.InstanceStatus;
+import fr.lostaria.wakeapi.core.exception.OvhApiException;
+import fr.lostaria.wakeapi.core.exception.OvhApiExceptionCause;
+import fr.lostaria.wakeapi.core.lifecycle.InstanceLifecycle;
+import fr.lostaria.wakeapi.core.operation.Operation;
+import fr.lostaria.wakeapi.core.operation.OperationFinishedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrewarmServiceTest {
+
+    private final FleetRegistry fleet = new FleetRegistry(new FleetProperties(null), "i-1", "127.0.0.1", 25565);
+    private final FleetInstance instance = fleet.defaultInstance();
+    private final OvhApiService ovhApiService = mock(OvhApiService.class);
+    private final InstanceOperationService operationService = mock(InstanceOperationService.class);
+    private final InstanceWatchService watchService = mock(InstanceWatchService.class);
+
+    // Demande à chaque heure pleine, avance de 2 h : il y a toujours une demande à préparer
+    private final PrewarmService service = new PrewarmService(
+            new PrewarmProperties(true, Duration.ofHours(2), "UTC",
+                    List.of(new PrewarmProperties.Window(null, "0 0 * * * *")),
+                    new PrewarmProperties.Learning(false, null, null, null, null)),
+            fleet, ovhApiService, operationService, watchService, mock(TaskScheduler.class));
+
+    @Test
+    void demandIsWarmedOnce() throws Exception {
+        when(ovhApiService.getInstanceStatus(instance)).thenReturn(InstanceStatus.SHELVED_OFFLOADED);
+        when(operationService.submit(instance, InstanceLifecycle.Action.START))
+                .thenReturn(Operation.pending(instance.id(), InstanceLifecycle.Action.START));
+
+        service.tick();
+        service.tick();
+
+        verify(operationService, times(1)).submit(instance, InstanceLifecycle.Action.START);
+        verify(watchService, times(1)).holdUntil(eq(instance), any(Instant.class));
+    }
+
+    @Test
+    void unavailableStatusIsRetriedOnNextTick() throws Exception {
+        when(ovhApiService.getInstanceStatus(instance))
+                .thenThrow(new OvhApiException("down", OvhApiExceptionCause.SERVICE_UNAVAILABLE))
+                .thenReturn(InstanceStatus.SHELVED_OFFLOADED);
+        when(operationService.submit(instance, InstanceLifecycle.Action.START))
+                .thenReturn(Operation.pending(instance.id(), InstanceLifecycle.Action.START));
+
+        service.tick();
+        verify(watchService, never()).holdUntil(any(), any());
+        verify(operationService, never()).submit(any(), any());
+
+        service.tick();
+        verify(watchService).holdUntil(eq(instance), any(Instant.class));
+        verify(operationService).submit(instance, InstanceLifecycle.Action.START);
+    }
+
+    @Test
+    void rejectedSubmitReleasesHoldAndRetries() throws Exception {
+        when(ovhApiService.getInstanceStatus(instance)).thenReturn(InstanceStatus.SHELVED_OFFLOADED);
+        when(operationService.submit(instance, InstanceLifecycle.Action.START))
+                .thenReturn(Operation.pending(instance.id(), InstanceLifecycle.Action.START).failed("Operation executor unavailable"));
+
+        service.tick();
+        service.tick();
+
+        verify(watchService, times(2)).releaseHold(eq(instance), any(Instant.class));
+        verify(operationService, times(2)).submit(instance, InstanceLifecycle.Action.START);
+    }
+
+    @Test
+    void failedStartIsRetriedOnNextTick() throws Exception {
+        Operation op = Operation.pending(instance.id(), InstanceLifecycle.Action.START);
+        when(ovhApiService.getInstanceStatus(instance)).thenReturn(InstanceStatus.SHELVED_OFFLOADED);
+        when(operationService.submit(instance, InstanceLifecycle.Action.START)).thenReturn(op);
+        when(operationService.find(anyString())).thenReturn(Optional.of(op));
+
+        service.tick();
+        service.onOperationFinished(new OperationFinishedEvent(op.running().failed("OVH unavailable")));
+        service.tick();
+
+        verify(watchService).releaseHold(eq(instance), any(Instant.class));
+        verify(operationService, times(2)).submit(instance, InstanceLifecycle.Action.START);
+    }
+
+    @Test
+    void runningInstanceIsOnlyHeld() throws Exception {
+        when(ovhApiService.getInstanceStatus(instance)).thenReturn(InstanceStatus.ACTIVE);
+
+        service.tick();
+        service.tick();
+
+        verify(watchService, times(1)).holdUntil(eq(instance), any(Instant.class));
+        verify(operationService, never()).submit(any(), any());
+    }
+}
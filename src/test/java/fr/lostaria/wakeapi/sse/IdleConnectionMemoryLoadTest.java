@@ -0,0 +1,173 @@
+package fr.lostaria.wakeapi.sse;
+
+import fr.lostaria.wakeapi.WakeApiApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mémoire de tas par connexion inactive : flux SSE /events/instance contre session STOMP sur /ws.
+ * Les clients sont de simples sockets (requête HTTP ou handshake WebSocket écrits à la main) pour que leur propre
+ * empreinte reste faible et identique dans les deux cas.
+ * Lancement : {@code mvn test -Dloadtest=true -Dtest=IdleConnectionMemoryLoadTest [-Dloadtest.idleClients=2000]}
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class IdleConnectionMemoryLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("loadtest.idleClients", 2_000);
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString("load:load".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void heapPerIdleConnection() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WakeApiApplication.class, LoadTestOverrides.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.max-connections=" + (CLIENTS + 100),
+                        "spring.main.allow-bean-definition-overriding=true",
+                        "spring.security.user.name=load",
+                        "spring.security.user.password=load",
+                        "spring.security.user.roles=ADMIN",
+                        "sse.maxConnections=" + (CLIENTS + 100),
+                        "ovh.applicationKey=x", "ovh.applicationSecret=x", "ovh.consumerKey=x",
+                        "ovh.apiEndpoint=http://127.0.0.1:9", "ovh.serviceId=x", "ovh.instanceId=x",
+                        "instance.poller.enabled=false",
+                        "minecraft.host=127.0.0.1", "minecraft.port=9",
+                        "ssh.username=x", "ssh.privateKeyPath=/dev/null")
+                .run()) {
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+
+            // Préchauffage : charge les classes des deux chemins avant la première mesure
+            openAll(8, i -> sse(port)).forEach(IdleConnectionMemoryLoadTest::closeQuietly);
+            openAll(8, i -> stomp(port, i)).forEach(IdleConnectionMemoryLoadTest::closeQuietly);
+
+            long sse = heapPerConnection(i -> sse(port));
+            long stomp = heapPerConnection(i -> stomp(port, i));
+            System.out.printf("Connexion inactive x%d : SSE = %d o, STOMP/SockJS = %d o%n", CLIENTS, sse, stomp);
+        }
+    }
+
+    private long heapPerConnection(IntFunction<Socket> open) throws Exception {
+        long before = usedHeap();
+        List<Socket> sockets = openAll(CLIENTS, open);
+        long after = usedHeap();
+        sockets.forEach(IdleConnectionMemoryLoadTest::closeQuietly);
+        Thread.sleep(1_000);
+        return (after - before) / CLIENTS;
+    }
+
+    private List<Socket> openAll(int count, IntFunction<Socket> open) {
+        List<Socket> sockets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sockets.add(open.apply(i));
+        }
+        return sockets;
+    }
+
+    private Socket sse(int port) {
+        try {
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            write(socket, "GET /events/instance HTTP/1.1\r\nHost: 127.0.0.1\r\nAccept: text/event-stream\r\n"
+                    + "Authorization: " + AUTHORIZATION + "\r\n\r\n");
+            expectStatus(socket, "200");
+            return socket;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Socket stomp(int port, int id) {
+        try {
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            write(socket, "GET /ws/websocket HTTP/1.1\r\nHost: 127.0.0.1\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                    + "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\nSec-WebSocket-Version: 13\r\n"
+                    + "Authorization: " + AUTHORIZATION + "\r\n\r\n");
+            expectStatus(socket, "101");
+            sendFrame(socket, "CONNECT\naccept-version:1.2\nhost:localhost\nAuthorization:" + AUTHORIZATION + "\n\n\0");
+            sendFrame(socket, "SUBSCRIBE\nid:sub-" + id + "\ndestination:/topic/instance/status\n\n\0");
+            return socket;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Trame texte masquée avec une clé nulle : le contenu reste lisible tel quel
+    private static void sendFrame(Socket socket, String text) throws IOException {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write(0x81);
+        if (payload.length < 126) {
+            frame.write(0x80 | payload.length);
+        } else {
+            frame.write(0x80 | 126);
+            frame.write(payload.length >>> 8);
+            frame.write(payload.length & 0xFF);
+        }
+        frame.write(new byte[4]);
+        frame.write(payload);
+        OutputStream out = socket.getOutputStream();
+        out.write(frame.toByteArray());
+        out.flush();
+    }
+
+    private static void write(Socket socket, String request) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(request.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static void expectStatus(Socket socket, String status) throws IOException {
+        InputStream in = socket.getInputStream();
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            line.append((char) b);
+        }
+        assertTrue(line.toString().startsWith("HTTP/1.1 " + status), "Réponse inattendue : " + line);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Configuration
+    static class LoadTestOverrides {
+
+        // Évite de payer BCrypt sur chacune des milliers de connexions
+        @Bean
+        @SuppressWarnings("deprecation")
+        public PasswordEncoder passwordEncoder() {
+            return NoOpPasswordEncoder.getInstance();
+        }
+    }
+}
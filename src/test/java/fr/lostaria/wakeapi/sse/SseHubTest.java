@@ -0,0 +1,190 @@
+package fr.lostaria.wakeapi.sse;
+
+import fr.lostaria.wakeapi.config.FleetProperties;
+import fr.lostaria.wakeapi.controllers.EventStreamController;
+import fr.lostaria.wakeapi.core.FleetInstance;
+import fr.lostaria.wakeapi.core.InstanceStatus;
+import fr.lostaria.wakeapi.core.MinecraftStatus;
+import fr.lostaria.wakeapi.core.MinecraftStatusChangedEvent;
+import fr.lostaria.wakeapi.payload.InstanceStatusEvent;
+import fr.lostaria.wakeapi.payload.MinecraftStatusEvent;
+import fr.lostaria.wakeapi.services.FleetRegistry;
+import fr.lostaria.wakeapi.services.MinecraftService;
+import fr.lostaria.wakeapi.ws.InstanceStatusBroadcaster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SseHubTest {
+
+    private final FleetRegistry fleet = new FleetRegistry(new FleetProperties(null), "i-1", "127.0.0.1", 25565);
+    private final FleetInstance instance = fleet.defaultInstance();
+    private final ExecutorService senders = Executors.newSingleThreadExecutor();
+    private SseHub hub;
+    private final InstanceStatusBroadcaster broadcaster = new InstanceStatusBroadcaster(
+            new SimpMessagingTemplate((message, timeout) -> true), fleet, mock(MinecraftService.class), this::relay,
+            new SimpleMeterRegistry(), 16);
+
+    @AfterEach
+    void stop() {
+        hub.stop();
+    }
+
+    @Test
+    void emptyStreamStartsWithAFrame() throws Exception {
+        // Rien à rejouer : une première trame fait partir les en-têtes sans attendre le heartbeat
+        stream(mvc(hub(10, 32)), "/events/instance", "", ":open");
+    }
+
+    @Test
+    void replaysEventsAfterLastEventId() throws Exception {
+        MockMvc mvc = mvc(hub(10, 32));
+        broadcaster.broadcast(instance, InstanceStatus.UNSHELVING);
+        broadcaster.broadcast(instance, InstanceStatus.ACTIVE);
+        broadcaster.broadcast(instance, InstanceStatus.SHELVING);
+
+        String epoch = broadcaster.epoch();
+        String body = stream(mvc, "/events/instance", epoch + "-1", "id:" + epoch + "-3");
+
+        assertTrue(body.contains("id:" + epoch + "-2"), body);
+        assertFalse(body.contains("id:" + epoch + "-1\n"), body);
+    }
+
+    @Test
+    void lastEventIdFromBeforeRestartGetsLatestInstanceEvent() throws Exception {
+        MockMvc mvc = mvc(hub(10, 32));
+        broadcaster.broadcast(instance, InstanceStatus.ACTIVE);
+
+        String body = stream(mvc, "/events/instance", "oldboot-500", "id:" + broadcaster.epoch() + "-1");
+
+        assertTrue(body.contains("\"status\":\"ACTIVE\""), body);
+    }
+
+    @Test
+    void staleLastEventIdBelowCurrentSequenceGetsLatestInstanceEvent() throws Exception {
+        MockMvc mvc = mvc(hub(10, 32));
+        broadcaster.broadcast(instance, InstanceStatus.ACTIVE);
+        for (int i = 0; i < 9; i++) {
+            broadcaster.onMinecraftStatus(new MinecraftStatusChangedEvent(instance, new MinecraftStatus(true, i)));
+        }
+
+        String body = stream(mvc, "/events/instance", "oldboot-5", "id:" + broadcaster.epoch() + "-1");
+
+        assertTrue(body.contains("\"status\":\"ACTIVE\""), body);
+    }
+
+    @Test
+    void staleLastEventIdBelowCurrentSequenceGetsLatestMinecraftEvent() throws Exception {
+        MockMvc mvc = mvc(hub(10, 32));
+        broadcaster.onMinecraftStatus(new MinecraftStatusChangedEvent(instance, new MinecraftStatus(true, 3)));
+        for (int i = 0; i < 9; i++) {
+            broadcaster.broadcast(instance, i % 2 == 0 ? InstanceStatus.UNSHELVING : InstanceStatus.ACTIVE);
+        }
+
+        String body = stream(mvc, "/events/minecraft", "oldboot-5", "event:minecraft-status");
+
+        assertTrue(body.contains("\"players\":3"), body);
+    }
+
+    @Test
+    void lastEventIdFromBeforeRestartGetsLatestMinecraftEvent() throws Exception {
+        MockMvc mvc = mvc(hub(10, 32));
+        broadcaster.onMinecraftStatus(new MinecraftStatusChangedEvent(instance, new MinecraftStatus(true, 3)));
+
+        String body = stream(mvc, "/events/minecraft", "oldboot-500", "event:minecraft-status");
+
+        assertTrue(body.contains("\"players\":3"), body);
+    }
+
+    @Test
+    void slowClientIsDroppedAtMaxPendingEvents() throws Exception {
+        SseHub hub = hub(10, 3);
+        CountDownLatch release = new CountDownLatch(1);
+        // Thread d'envoi bloqué : les trames s'accumulent dans la file du client
+        senders.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        // Première trame : le commentaire qui ouvre le flux
+        hub.open(SseHub.Stream.INSTANCE, instance, null).orElseThrow();
+
+        for (int i = 0; i < 2; i++) {
+            broadcaster.broadcast(instance, InstanceStatus.ACTIVE);
+        }
+        assertEquals(1, hub.stats().connections());
+        assertEquals(0, hub.stats().dropped());
+
+        broadcaster.broadcast(instance, InstanceStatus.SHELVING);
+        release.countDown();
+
+        assertEquals(0, hub.stats().connections());
+        assertEquals(1, hub.stats().dropped());
+    }
+
+    @Test
+    void rejectsStreamsBeyondMaxConnections() throws Exception {
+        SseHub hub = hub(2, 32);
+        MockMvc mvc = mvc(hub);
+        hub.open(SseHub.Stream.INSTANCE, instance, null).orElseThrow();
+        hub.open(SseHub.Stream.MINECRAFT, instance, null).orElseThrow();
+
+        MockHttpServletResponse response = mvc.perform(get("/events/instance").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable())
+                .andReturn().getResponse();
+
+        assertTrue(response.getContentAsString().contains("SSE_LIMIT_REACHED"));
+        assertEquals(1, hub.stats().rejected());
+        assertEquals(2, hub.stats().connections());
+    }
+
+    private SseHub hub(int maxConnections, int maxPendingEvents) {
+        hub = new SseHub(broadcaster, mock(MinecraftService.class), fleet, mock(TaskScheduler.class),
+                maxConnections, maxPendingEvents, 0, 30, 5_000, senders);
+        return hub;
+    }
+
+    private MockMvc mvc(SseHub hub) {
+        return MockMvcBuilders.standaloneSetup(new EventStreamController(hub, fleet)).build();
+    }
+
+    // Le flux ne se termine jamais : on lit le corps jusqu'à voir la trame attendue
+    private static String stream(MockMvc mvc, String path, String lastEventId, String expected) throws Exception {
+        MockHttpServletResponse response = mvc.perform(get(path).accept(MediaType.TEXT_EVENT_STREAM).header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        long deadline = System.currentTimeMillis() + 5_000;
+        String body = response.getContentAsString();
+        while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = response.getContentAsString();
+        }
+        assertTrue(body.contains(expected), body);
+        return body;
+    }
+
+    private void relay(Object event) {
+        if (hub == null) return;
+        if (event instanceof InstanceStatusEvent e) hub.onInstanceStatus(e);
+        if (event instanceof MinecraftStatusEvent e) hub.onMinecraftStatus(e);
+    }
+}
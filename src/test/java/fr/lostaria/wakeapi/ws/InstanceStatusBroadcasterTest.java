@@ -0,0 +1,138 @@
+package fr.lostaria.wakeapi.ws;
+
+import fr.lostaria.wakeapi.config.FleetProperties;
+import fr.lostaria.wakeapi.core.FleetInstance;
+import fr.lostaria.wakeapi.core.InstanceStatus;
+import fr.lostaria.wakeapi.core.MinecraftStatus;
+import fr.lostaria.wakeapi.core.MinecraftStatusChangedEvent;
+import fr.lostaria.wakeapi.payload.InstanceStatusEvent;
+import fr.lostaria.wakeapi.services.FleetRegistry;
+import fr.lostaria.wakeapi.services.MinecraftService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class InstanceStatusBroadcasterTest {
+
+    private final FleetRegistry fleet = new FleetRegistry(new FleetProperties(null), "i-1", "127.0.0.1", 25565);
+    private final FleetInstance instance = fleet.defaultInstance();
+
+    private InstanceStatusBroadcaster broadcaster(int historySize) {
+        return new InstanceStatusBroadcaster(new SimpMessagingTemplate((message, timeout) -> true), fleet,
+                mock(MinecraftService.class), event -> { }, new SimpleMeterRegistry(), historySize);
+    }
+
+    @Test
+    void replaysEventsAfterSince() {
+        InstanceStatusBroadcaster broadcaster = broadcaster(16);
+        broadcaster.broadcast(instance, InstanceStatus.UNSHELVING);
+        broadcaster.broadcast(instance, InstanceStatus.ACTIVE);
+        broadcaster.broadcast(instance, InstanceStatus.SHELVING);
+
+        List<InstanceStatusEvent> events = broadcaster.eventsSince(instance, new EventCursor(broadcaster.epoch(), 1));
+
+        assertEquals(List.of(2L, 3L), events.stream().map(InstanceStatusEvent::seq).toList());
+    }
+
+    @Test
+    void evictedHistoryFallsBackToLastEvent() {
+        InstanceStatusBroadcaster broadcaster = broadcaster(2);
+        broadcaster.broadcast(instance, InstanceStatus.UNSHELVING);
+        broadcaster.broadcast(instance, InstanceStatus.ACTIVE);
+        broadcaster.broadcast(instance, InstanceStatus.SHELVING);
+        broadcaster.broadcast(instance, InstanceStatus.SHELVED_OFFLOADED);
+
+        List<InstanceStatusEvent> events = broadcaster.eventsSince(instance, new EventCursor(broadcaster.epoch(), 0));
+
+        assertEquals(1, events.size());
+        assertEquals(InstanceStatus.SHELVED_OFFLOADED, events.get(0).status());
+    }
+
+    @Test
+    void sinceFromBeforeRestartGetsLastEvent() {
+        // Après un redémarrage la séquence repart de 0 : le client revient avec un numéro plus grand
+        InstanceStatusBroadcaster broadcaster = broadcaster(16);
+        broadcaster.broadcast(instance, InstanceStatus.ACTIVE);
+
+        List<InstanceStatusEvent> events = broadcaster.eventsSince(instance, EventCursor.parse("oldboot-500"));
+
+        assertEquals(1, events.size());
+        assertEquals(InstanceStatus.ACTIVE, events.get(0).status());
+        assertEquals(1, events.get(0).seq());
+    }
+
+    @Test
+    void staleSinceBelowCurrentSequenceGetsLastEvent() {
+        // La nouvelle séquence a déjà dépassé le numéro du client, mais le dernier statut de l'instance est plus ancien
+        InstanceStatusBroadcaster broadcaster = broadcaster(16);
+        broadcaster.broadcast(instance, InstanceStatus.ACTIVE);
+        for (int i = 0; i < 9; i++) {
+            broadcaster.onMinecraftStatus(new MinecraftStatusChangedEvent(instance, new MinecraftStatus(true, i)));
+        }
+
+        List<InstanceStatusEvent> events = broadcaster.eventsSince(instance, EventCursor.parse("oldboot-5"));
+
+        assertEquals(1, events.size());
+        assertEquals(InstanceStatus.ACTIVE, events.get(0).status());
+        assertEquals(broadcaster.epoch(), events.get(0).epoch());
+    }
+
+    @Test
+    void sinceWithoutEpochGetsLastEvent() {
+        InstanceStatusBroadcaster broadcaster = broadcaster(16);
+        broadcaster.broadcast(instance, InstanceStatus.UNSHELVING);
+        broadcaster.broadcast(instance, InstanceStatus.ACTIVE);
+
+        List<InstanceStatusEvent> events = broadcaster.eventsSince(instance, EventCursor.parse("1"));
+
+        assertEquals(List.of(2L), events.stream().map(InstanceStatusEvent::seq).toList());
+    }
+
+    @Test
+    void concurrentBroadcastsAreDeliveredInSequenceOrder() throws Exception {
+        List<Long> sent = Collections.synchronizedList(new ArrayList<>());
+        List<Long> relayed = Collections.synchronizedList(new ArrayList<>());
+        MessageChannel channel = (message, timeout) -> {
+            if (InstanceStatusBroadcaster.statusTopic(instance).equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+                // Élargit la fenêtre entre numérotation et envoi
+                Thread.yield();
+                sent.add(((InstanceStatusEvent) message.getPayload()).seq());
+            }
+            return true;
+        };
+        InstanceStatusBroadcaster broadcaster = new InstanceStatusBroadcaster(new SimpMessagingTemplate(channel), fleet,
+                mock(MinecraftService.class), event -> relayed.add(((InstanceStatusEvent) event).seq()), new SimpleMeterRegistry(), 16);
+
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            done.add(threads.submit(() -> {
+                go.await();
+                for (int i = 0; i < 250; i++) broadcaster.broadcast(instance, InstanceStatus.ACTIVE);
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> f : done) f.get();
+        threads.shutdown();
+
+        List<Long> expected = LongStream.rangeClosed(1, 1_000).boxed().toList();
+        assertEquals(expected, sent);
+        assertEquals(expected, relayed);
+    }
+}
@@ -0,0 +1,183 @@
+package fr.lostaria.wakeapi.ws;
+
+import fr.lostaria.wakeapi.WakeApiApplication;
+import fr.lostaria.wakeapi.core.FleetInstance;
+import fr.lostaria.wakeapi.core.InstanceStatus;
+import fr.lostaria.wakeapi.services.FleetRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ouvre {@code loadtest.wsClients} clients STOMP locaux (2000 par défaut) sur /ws, abonnés au statut de l'instance,
+ * puis mesure le délai entre la publication et la réception par chaque client.
+ * Lancement : {@code mvn test -Dloadtest=true -Dtest=WebSocketFanOutLoadTest [-Dloadtest.wsClients=5000]}
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class WebSocketFanOutLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("loadtest.wsClients", 2_000);
+    private static final int ROUNDS = 20;
+    private static final int CONNECT_BATCH = 200;
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString("load:load".getBytes(StandardCharsets.UTF_8));
+
+    private final AtomicInteger warmedUp = new AtomicInteger();
+    private volatile Round round;
+
+    @Test
+    void broadcastLatency() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WakeApiApplication.class, LoadTestOverrides.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.allow-bean-definition-overriding=true",
+                        "spring.security.user.name=load",
+                        "spring.security.user.password=load",
+                        "spring.security.user.roles=ADMIN",
+                        "ovh.applicationKey=x", "ovh.applicationSecret=x", "ovh.consumerKey=x",
+                        "ovh.apiEndpoint=http://127.0.0.1:9", "ovh.serviceId=x", "ovh.instanceId=x",
+                        "instance.poller.enabled=false",
+                        "minecraft.host=127.0.0.1", "minecraft.port=9",
+                        "ssh.username=x", "ssh.privateKeyPath=/dev/null")
+                .run()) {
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            InstanceStatusBroadcaster broadcaster = context.getBean(InstanceStatusBroadcaster.class);
+            FleetInstance instance = context.getBean(FleetRegistry.class).defaultInstance();
+            String destination = "/topic/instance/" + instance.id() + "/status";
+
+            HttpClient http = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+            List<WebSocket> sockets = new ArrayList<>(CLIENTS);
+            for (int from = 0; from < CLIENTS; from += CONNECT_BATCH) {
+                List<CompletableFuture<WebSocket>> batch = new ArrayList<>();
+                for (int i = from; i < Math.min(CLIENTS, from + CONNECT_BATCH); i++) {
+                    batch.add(connect(http, port, destination, i));
+                }
+                batch.forEach(f -> sockets.add(f.join()));
+            }
+
+            // Le simple broker n'accuse pas les SUBSCRIBE : on publie jusqu'à ce que chaque client ait reçu un message
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (warmedUp.get() < CLIENTS && System.nanoTime() < deadline) {
+                broadcaster.broadcast(instance, InstanceStatus.UNKNOWN);
+                Thread.sleep(100);
+            }
+            assertEquals(CLIENTS, warmedUp.get());
+            // Laisse s'écouler les dernières publications de préchauffage avant de mesurer
+            Thread.sleep(1_000);
+
+            long[] latencies = new long[CLIENTS * ROUNDS];
+            int n = 0;
+            for (int r = 0; r < ROUNDS; r++) {
+                Round current = new Round(CLIENTS);
+                round = current;
+                current.startNanos = System.nanoTime();
+                broadcaster.broadcast(instance, r % 2 == 0 ? InstanceStatus.ACTIVE : InstanceStatus.SHELVED_OFFLOADED);
+                assertTrue(current.received.await(30, TimeUnit.SECONDS), "Diffusion incomplète au tour " + r);
+                System.arraycopy(current.latencies, 0, latencies, n, CLIENTS);
+                n += CLIENTS;
+            }
+            round = null;
+
+            Arrays.sort(latencies);
+            System.out.printf("Diffusion STOMP x%d clients, %d tours : p50 = %.2f ms, p99 = %.2f ms, max = %.2f ms%n",
+                    CLIENTS, ROUNDS, millis(latencies, 0.50), millis(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+
+            sockets.forEach(ws -> ws.abort());
+        }
+    }
+
+    private CompletableFuture<WebSocket> connect(HttpClient http, int port, String destination, int id) {
+        // Transport WebSocket brut de SockJS : les trames STOMP circulent sans enveloppe
+        return http.newWebSocketBuilder()
+                .header("Authorization", AUTHORIZATION)
+                .buildAsync(URI.create("ws://127.0.0.1:" + port + "/ws/websocket"), new StompListener())
+                .thenCompose(ws -> ws.sendText("CONNECT\naccept-version:1.2\nhost:localhost\nAuthorization:" + AUTHORIZATION + "\n\n\0", true))
+                .thenCompose(ws -> ws.sendText("SUBSCRIBE\nid:sub-" + id + "\ndestination:" + destination + "\n\n\0", true));
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    private static final class Round {
+        final long[] latencies;
+        final AtomicInteger index = new AtomicInteger();
+        final CountDownLatch received;
+        volatile long startNanos;
+
+        Round(int clients) {
+            this.latencies = new long[clients];
+            this.received = new CountDownLatch(clients);
+        }
+    }
+
+    private final class StompListener implements WebSocket.Listener {
+
+        private final StringBuilder frame = new StringBuilder();
+        private boolean warm;
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            frame.append(data);
+            if (last) {
+                if (frame.indexOf("MESSAGE") == 0) {
+                    onMessage();
+                } else if (frame.indexOf("ERROR") == 0) {
+                    System.err.println("STOMP ERROR: " + frame);
+                }
+                frame.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        private void onMessage() {
+            long now = System.nanoTime();
+            if (!warm) {
+                warm = true;
+                warmedUp.incrementAndGet();
+            }
+            Round current = round;
+            if (current != null) {
+                int i = current.index.getAndIncrement();
+                if (i < current.latencies.length) {
+                    current.latencies[i] = now - current.startNanos;
+                    current.received.countDown();
+                }
+            }
+        }
+    }
+
+    @Configuration
+    static class LoadTestOverrides {
+
+        // Évite de payer BCrypt sur chacun des milliers de CONNECT
+        @Bean
+        @SuppressWarnings("deprecation")
+        public PasswordEncoder passwordEncoder() {
+            return NoOpPasswordEncoder.getInstance();
+        }
+    }
+}